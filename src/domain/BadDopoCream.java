@@ -2,6 +2,7 @@ package domain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Clase principal que gestiona el juego.
@@ -12,11 +13,18 @@ import java.util.List;
  * @version 1.0
  */
 public class BadDopoCream {
+    public static final int TICK_MILLIS = 100; // Duración de un tick lógico en tiempo real
+    public static final int TICKS_PER_UPDATE = 4; // El nivel se actualiza cada 400 ms
+    public static final int TICKS_PER_SECOND = 10; // El tiempo baja cada 1000 ms
+    
     private Level currentLevel;
     private GameState state;
     private int currentLevelNumber;
-    private long lastUpdateTime;
-    private long lastSecondTime;
+    private long seed; // Semilla de la partida actual
+    private InputLog inputLog; // Entradas de la partida actual, null si no se graban
+    private long tickCount; // Reloj lógico de la partida
+    private long lastClockTime; // Última lectura del reloj real
+    private long pendingMillis; // Tiempo real aún no convertido en ticks
     private List<LevelTemplate> availableLevels;
     
     /**
@@ -25,8 +33,9 @@ public class BadDopoCream {
     public BadDopoCream() {
         this.state = GameState.NOT_STARTED;
         this.currentLevelNumber = 1;
-        this.lastUpdateTime = 0;
-        this.lastSecondTime = 0;
+        this.tickCount = 0;
+        this.lastClockTime = 0;
+        this.pendingMillis = 0;
         initializeAvailableLevels();
     }
     
@@ -66,12 +75,22 @@ public class BadDopoCream {
      * @return La configuración del nivel
      */
     public LevelConfiguration createLevelConfiguration(int levelIndex) {
+        return createLevelConfiguration(levelIndex, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Crea la configuración de un nivel usando su template y una semilla fija
+     * @param levelIndex Índice del nivel
+     * @param seed Semilla de la partida
+     * @return La configuración del nivel
+     */
+    public LevelConfiguration createLevelConfiguration(int levelIndex, long seed) {
         LevelTemplate template = getLevelTemplate(levelIndex);
         if (template == null) {
             return null;
         }
         
-        LevelBuilder builder = new LevelBuilder();
+        LevelBuilder builder = new LevelBuilder(seed);
         template.configure(builder);
         return builder.build();
     }
@@ -81,10 +100,21 @@ public class BadDopoCream {
      * @param levelIndex Índice del nivel
      */
     public void startGame(int levelIndex) {
-        LevelConfiguration config = createLevelConfiguration(levelIndex);
+        startGame(levelIndex, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Inicia el juego con un nivel específico y una semilla fija.
+     * Dos partidas con la misma semilla y las mismas entradas son idénticas.
+     * @param levelIndex Índice del nivel
+     * @param seed Semilla de la partida
+     */
+    public void startGame(int levelIndex, long seed) {
+        LevelConfiguration config = createLevelConfiguration(levelIndex, seed);
         if (config != null) {
             startGameWithConfiguration(config);
             currentLevelNumber = levelIndex + 1;
+            inputLog = new InputLog(levelIndex, seed);
         }
     }
     
@@ -92,15 +122,20 @@ public class BadDopoCream {
      * Inicia el juego con una configuración de nivel específica
      */
     public void startGameWithConfiguration(LevelConfiguration config) {
-        currentLevel = new Level(currentLevelNumber, 25, 15, 180); // 25x15, 3 minutos
+        currentLevel = new Level(currentLevelNumber, config.getWidth(), config.getHeight(), config.getTimeLimit(),
+                config.getBoardStorage());
         currentLevel.initialize(config);
+        seed = config.getSeed();
+        inputLog = null; // Sin índice de nivel la partida no se puede reproducir
         state = GameState.PLAYING;
-        lastUpdateTime = System.currentTimeMillis();
-        lastSecondTime = System.currentTimeMillis();
+        tickCount = 0;
+        resetClock();
     }
     
     /**
-     * Actualiza el estado del juego
+     * Actualiza el estado del juego según el reloj real.
+     * Convierte el tiempo transcurrido en ticks lógicos y los ejecuta con step,
+     * así la interfaz gráfica es solo un cliente más del motor.
      */
     public void update() {
         if (state != GameState.PLAYING) {
@@ -108,23 +143,86 @@ public class BadDopoCream {
         }
         
         long currentTime = System.currentTimeMillis();
+        pendingMillis += currentTime - lastClockTime;
+        lastClockTime = currentTime;
         
-        // Intervalo para la velocidad del juego, lo subimos a 400ms y entre 1000ms 
-        if (currentTime - lastUpdateTime >= 400) {
-            currentLevel.update();
-            lastUpdateTime = currentTime;
-        }
-        
-        
-        if (currentTime - lastSecondTime >= 1000) {
-            currentLevel.decrementTime();
-            lastSecondTime = currentTime;
-        }
-        
+        int ticks = (int) (pendingMillis / TICK_MILLIS);
+        pendingMillis -= (long) ticks * TICK_MILLIS;
+        step(ticks);
         
         checkGameState();
     }
     
+    /**
+     * Avanza la simulación una cantidad de ticks lógicos sin depender del reloj real.
+     * Cada TICKS_PER_UPDATE ticks se actualiza el nivel y cada TICKS_PER_SECOND
+     * ticks se descuenta un segundo. Se detiene si la partida deja de estar en juego.
+     * @param ticks Cantidad de ticks a simular
+     * @return Cantidad de ticks que realmente se ejecutaron
+     */
+    public int step(int ticks) {
+        int executed = 0;
+        while (executed < ticks && state == GameState.PLAYING) {
+            tickCount++;
+            executed++;
+            
+            if (tickCount % TICKS_PER_UPDATE == 0) {
+                currentLevel.update();
+            }
+            if (tickCount % TICKS_PER_SECOND == 0) {
+                currentLevel.decrementTime();
+            }
+            if (inputLog != null) {
+                inputLog.markTick(tickCount);
+            }
+            
+            checkGameState();
+        }
+        return executed;
+    }
+    
+    /**
+     * Obtiene la semilla de la partida actual
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Obtiene el registro de entradas de la partida actual
+     * @return El registro o null si la partida no se inició desde un nivel
+     */
+    public InputLog getInputLog() {
+        return inputLog;
+    }
+    
+    /**
+     * Registra una acción de helado en el registro de entradas
+     */
+    private void recordAction(IceCream iceCream, GameAction action) {
+        if (inputLog != null) {
+            int player = currentLevel.getBoard().getIceCreams().indexOf(iceCream);
+            if (player >= 0 && player < InputLog.MAX_PLAYERS) { // Un helado fuera del tablero no se puede repetir
+                inputLog.recordAction(tickCount, player, action);
+            }
+        }
+    }
+    
+    /**
+     * Obtiene la cantidad de ticks lógicos simulados en la partida actual
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    /**
+     * Reinicia la referencia del reloj real
+     */
+    private void resetClock() {
+        lastClockTime = System.currentTimeMillis();
+        pendingMillis = 0;
+    }
+    
     /**
      * Verifica si el juego ha terminado
      */
@@ -143,7 +241,10 @@ public class BadDopoCream {
         if (state != GameState.PLAYING || !iceCream.isAlive()) {
             return false;
         }
-        return iceCream.move(direction, currentLevel.getBoard());
+        recordAction(iceCream, GameAction.moveTowards(direction));
+        boolean moved = iceCream.move(direction, currentLevel.getBoard());
+        currentLevel.resolveCollisions(); // Pisar a un enemigo o un peligro elimina al instante
+        return moved;
     }
     
     /**
@@ -151,6 +252,7 @@ public class BadDopoCream {
      */
     public void createIceBlocks(IceCream iceCream) {
         if (state == GameState.PLAYING && iceCream.isAlive()) {
+            recordAction(iceCream, GameAction.CREATE_ICE);
             currentLevel.getBoard().createIceBlocks(
                 iceCream.getPosition(), 
                 iceCream.getFacingDirection()
@@ -163,6 +265,7 @@ public class BadDopoCream {
      */
     public void breakIceBlocks(IceCream iceCream) {
         if (state == GameState.PLAYING && iceCream.isAlive()) {
+            recordAction(iceCream, GameAction.BREAK_ICE);
             currentLevel.getBoard().breakIceBlocks(
                 iceCream.getPosition(), 
                 iceCream.getFacingDirection()
@@ -170,12 +273,31 @@ public class BadDopoCream {
         }
     }
     
+    /**
+     * Realiza una acción de jugador con un helado
+     * @param iceCream El helado que realiza la acción
+     * @param action La acción a realizar
+     */
+    public void performAction(IceCream iceCream, GameAction action) {
+        switch (action) {
+            case CREATE_ICE -> createIceBlocks(iceCream);
+            case BREAK_ICE -> breakIceBlocks(iceCream);
+            case NONE -> {
+                // No hace nada este tick
+            }
+            default -> moveIceCream(iceCream, action.getDirection());
+        }
+    }
+    
     /**
      * Pausa el juego
      */
     public void pause() {
         if (state == GameState.PLAYING) {
             state = GameState.PAUSED;
+            if (inputLog != null) {
+                inputLog.recordControl(tickCount, InputLog.PAUSE);
+            }
         }
     }
     
@@ -185,8 +307,10 @@ public class BadDopoCream {
     public void resume() {
         if (state == GameState.PAUSED) {
             state = GameState.PLAYING;
-            lastUpdateTime = System.currentTimeMillis();
-            lastSecondTime = System.currentTimeMillis();
+            if (inputLog != null) {
+                inputLog.recordControl(tickCount, InputLog.RESUME);
+            }
+            resetClock();
         }
     }
     
@@ -229,12 +353,9 @@ public class BadDopoCream {
      * Calcula el puntaje total de todos los helados
      */
     public int getTotalScore() {
-        int total = 0;
-        if (currentLevel != null) {
-            for (IceCream iceCream : currentLevel.getBoard().getIceCreams()) {
-                total += iceCream.getScore();
-            }
+        if (currentLevel == null) {
+            return 0;
         }
-        return total;
+        return currentLevel.getStatistics().getTotalScore();
     }
 }
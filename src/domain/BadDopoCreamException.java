@@ -16,6 +16,8 @@ public class BadDopoCreamException extends Exception {
     public static final String GAME_NOT_STARTED = "El juego no ha comenzado";
     public static final String PLAYER_NOT_FOUND = "Jugador no encontrado";
     public static final String ENEMY_NOT_FOUND = "Enemigo no encontrado";
+    public static final String REPLAY_ERROR = "No se pudo leer o escribir la repetición";
+    public static final String INVALID_STATE = "El estado no pertenece a este nivel";
 	
     /**
      * Constructor de la excepción con un mensaje específico.
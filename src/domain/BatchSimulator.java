@@ -0,0 +1,132 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Ejecuta miles de partidas sin interfaz en paralelo para balancear niveles.
+ * Cada partida usa su propio juego y tablero, y las partidas se reparten
+ * entre todos los núcleos con un pool fork-join.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class BatchSimulator {
+    private static final int GAMES_PER_TASK = 16; // Tamaño mínimo de un bloque de partidas
+    
+    private final LongFunction<MachinePlayer> playerFactory;
+    private final int parallelism;
+    
+    /**
+     * Constructor del simulador que usa todos los núcleos disponibles
+     * @param playerFactory Crea el jugador de cada partida a partir de su semilla
+     */
+    public BatchSimulator(LongFunction<MachinePlayer> playerFactory) {
+        this(playerFactory, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructor del simulador con un nivel de paralelismo específico
+     * @param playerFactory Crea el jugador de cada partida a partir de su semilla
+     * @param parallelism Cantidad de hilos a usar
+     */
+    public BatchSimulator(LongFunction<MachinePlayer> playerFactory, int parallelism) {
+        this.playerFactory = playerFactory;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Juega una cantidad de partidas de un nivel y agrega sus resultados
+     * @param levelIndex Índice del nivel (0 para nivel 1, 1 para nivel 2, etc.)
+     * @param games Cantidad de partidas
+     * @param baseSeed Semilla de la primera partida, las demás usan las siguientes.
+     *                 La misma semilla produce el mismo reporte.
+     * @return El reporte agregado
+     * @throws BadDopoCreamException Si el nivel no existe
+     */
+    public SimulationReport run(int levelIndex, int games, long baseSeed) throws BadDopoCreamException {
+        if (new BadDopoCream().getLevelTemplate(levelIndex) == null) {
+            throw new BadDopoCreamException(BadDopoCreamException.LEVEL_NOT_FOUND);
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new GameRange(levelIndex, baseSeed, 0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Juega una partida completa sin interfaz
+     */
+    private void playGame(int levelIndex, long seed, SimulationReport report) {
+        // La semilla de la partida se divide entre el nivel y el jugador
+        SplittableRandom session = new SplittableRandom(seed);
+        BadDopoCream game = new BadDopoCream();
+        game.startGame(levelIndex, session.nextLong());
+        MachinePlayer player = playerFactory.apply(session.nextLong());
+        List<IceCream> iceCreams = game.getCurrentLevel().getBoard().getIceCreams();
+        
+        while (game.getState() == GameState.PLAYING) {
+            for (IceCream iceCream : iceCreams) {
+                if (iceCream.isAlive()) {
+                    game.performAction(iceCream, player.chooseAction(game, iceCream));
+                }
+            }
+            game.step(BadDopoCream.TICKS_PER_UPDATE);
+        }
+        
+        List<Position> deaths = new ArrayList<>();
+        for (IceCream iceCream : iceCreams) {
+            if (!iceCream.isAlive()) {
+                deaths.add(iceCream.getPosition());
+            }
+        }
+        report.addGame(game.getState() == GameState.LEVEL_COMPLETED, game.getTickCount(),
+                       game.getTotalScore(), deaths);
+    }
+    
+    /**
+     * Tarea fork-join que divide un rango de partidas hasta un tamaño mínimo
+     */
+    private class GameRange extends RecursiveTask<SimulationReport> {
+        private static final long serialVersionUID = 1L;
+        
+        private final int levelIndex;
+        private final long baseSeed;
+        private final int from;
+        private final int to;
+        
+        GameRange(int levelIndex, long baseSeed, int from, int to) {
+            this.levelIndex = levelIndex;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationReport report = new SimulationReport(levelIndex);
+                for (int i = from; i < to; i++) {
+                    playGame(levelIndex, baseSeed + i, report);
+                }
+                return report;
+            }
+            
+            int middle = (from + to) >>> 1;
+            GameRange left = new GameRange(levelIndex, baseSeed, from, middle);
+            GameRange right = new GameRange(levelIndex, baseSeed, middle, to);
+            left.fork();
+            SimulationReport report = right.compute();
+            report.merge(left.join());
+            return report;
+        }
+    }
+}
@@ -1,21 +1,79 @@
 package domain;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Clase que representa el tablero del juego.
  * Gestiona la cuadrí­cula del juego y los objetos en ella.
+ * Las celdas se guardan en un CellStore, en el heap por bloques o fuera del
+ * heap según el BoardStorage elegido al crear el tablero.
+ * Con el registro de deshacer activo, cada cambio guarda lo mínimo para
+ * revertirlo (tipo, objeto, posición anterior y posiciones en la celda y los
+ * registros) y unmake deja el tablero como estaba. Los giros hechos con
+ * turnObject también se guardan; el resto del estado de los objetos, como su
+ * puntaje, no.
  * 
  * @author Juan Daniel Bogotá Fuentes
  * @author Nicolás Felipe Bernal Gallo
  * @version 1.0
  */
 public class Board {
+    // Capas de ocupación: un bit por celda en cada capa
+    static final int SOLID_LAYER = 0;
+    static final int ICE_LAYER = 1;
+    static final int PLAYER_ICE_LAYER = 2;
+    static final int HOT_TILE_LAYER = 3;
+    static final int BONFIRE_LAYER = 4;
+    static final int ENEMY_LAYER = 5;
+    static final int FRUIT_LAYER = 6;
+    static final int ICE_CREAM_LAYER = 7;
+    private static final int LAYER_COUNT = CellStore.LAYER_COUNT;
+    
+    // Entradas de la pila de deshacer
+    private static final int UNDO_ADD = 0;
+    private static final int UNDO_CREATE_ICE = 1;
+    private static final int UNDO_REMOVE = 2;
+    private static final int UNDO_MOVE = 3;
+    private static final int UNDO_TURN = 4; // Guarda el ordinal de la orientación anterior, o -1
+    private static final int UNDO_INTS = 4; // Tipo, posición en la celda y en los dos registros
+    
     private final int width;
     private final int height;
-    private final List<GameObject>[][] grid;
-    private List<IceCream> iceCreams;
+    private final CellStore cells;
+    private final Position[][] positions; // Posiciones canónicas por fila, se crean al consultarlas
+    private final List<IceCream> iceCreams;
+    private final List<Enemy> enemies; // Registros por tipo, en orden de llegada al tablero
+    private final List<Fruit> fruits;
+    private final List<GameObject> dangerousObjects;
+    private final List<IceBlock> iceBlocks;
+    private final List<IceCream> iceCreamsView; // Vistas de solo lectura, sin copiar
+    private final List<Enemy> enemiesView;
+    private final List<Fruit> fruitsView;
+    private final List<GameObject> dangerousObjectsView;
+    private final List<IceBlock> iceBlocksView;
+    private GameObject[][] visitBuffers; // Buffers reutilizables por nivel de anidamiento
+    private int visitDepth;
+    private long tick; // Ticks de juego transcurridos
+    private long version; // Cambia cuando se altera lo transitable o la posición de un helado
+    private final DistanceField[] distanceFields; // [0] sin romper hielo, [1] rompiendo hielo
+    private long changeCount; // Cambios de transitabilidad acumulados
+    private long hash; // Suma XOR de las llaves Zobrist de los objetos en el tablero
+    private GameEventListener[] listeners; // Se reemplaza al suscribir, así despachar no reserva memoria
+    private boolean undoRecording;
+    private int makeDepth; // Jugadas abiertas anidadas; solo la exterior marca la pila
+    private int[] undoCodes; // UNDO_INTS enteros por entrada
+    private GameObject[] undoObjects;
+    private Position[] undoPositions; // Posición anterior de cada movimiento
+    private int undoSize;
+    private int[] undoMarks; // Inicio de cada jugada en la pila
+    private int undoMarkCount;
+    private IceBlock[] spareIce; // Hielo deshecho que se reutiliza al crear hielo
+    private int spareIceCount;
     
     /**
      * Constructor del tablero con dimensiones especí­ficas.
@@ -23,16 +81,45 @@ public class Board {
      * @param height Altura del tablero.
      */
     public Board(int width, int height) {
+        this(width, height, BoardStorage.HEAP);
+    }
+    
+    /**
+     * Constructor del tablero con dimensiones y almacenamiento específicos.
+     * @param width Ancho del tablero.
+     * @param height Altura del tablero.
+     * @param storage Dónde se guardan las celdas.
+     */
+    public Board(int width, int height, BoardStorage storage) {
         this.width = width;
         this.height = height;
-        this.grid = new ArrayList[width][height];
+        this.cells = storage == BoardStorage.OFF_HEAP
+                ? new OffHeapCellStore(width, height)
+                : new ChunkedCellStore(width, height);
+        this.positions = new Position[height][];
         this.iceCreams = new ArrayList<>();
-        
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                grid[x][y] = new ArrayList<>();
-            }
-        }
+        this.enemies = new ArrayList<>();
+        this.fruits = new ArrayList<>();
+        this.dangerousObjects = new ArrayList<>();
+        this.iceBlocks = new ArrayList<>();
+        this.iceCreamsView = Collections.unmodifiableList(iceCreams);
+        this.enemiesView = Collections.unmodifiableList(enemies);
+        this.fruitsView = Collections.unmodifiableList(fruits);
+        this.dangerousObjectsView = Collections.unmodifiableList(dangerousObjects);
+        this.iceBlocksView = Collections.unmodifiableList(iceBlocks);
+        this.visitBuffers = new GameObject[2][];
+        this.visitDepth = 0;
+        this.tick = 0;
+        this.version = 0;
+        this.distanceFields = new DistanceField[2];
+        this.changeCount = 0;
+        this.listeners = new GameEventListener[0];
+        this.undoRecording = false;
+        this.undoCodes = new int[0];
+        this.undoObjects = new GameObject[0];
+        this.undoPositions = new Position[0];
+        this.undoMarks = new int[0];
+        this.spareIce = new IceBlock[0];
     }
     
     /**
@@ -57,16 +144,79 @@ public class Board {
                position.getY() >= 0 && position.getY() < height;
     }
     
+    /**
+     * Obtiene el identificador empaquetado de la celda de una posición
+     * @return Índice de la celda o -1 si la posición está fuera del tablero
+     */
+    public int getCellIndex(Position position) {
+        if (!isValidPosition(position)) {
+            return -1;
+        }
+        return cellIndex(position.getX(), position.getY());
+    }
+    
+    /**
+     * Obtiene la posición canónica de una celda.
+     * Retorna la misma instancia para la misma celda; solo si varios hilos la
+     * piden a la vez por primera vez pueden obtener instancias distintas, que
+     * siguen siendo iguales con equals.
+     */
+    public Position getPosition(int cell) {
+        return getPosition(cell % width, cell / width);
+    }
+    
+    /**
+     * Obtiene la posición canónica de unas coordenadas
+     */
+    public Position getPosition(int x, int y) {
+        Position[] row = positions[y];
+        if (row == null) {
+            row = new Position[width];
+            positions[y] = row;
+        }
+        Position position = row[x];
+        if (position == null) {
+            position = new Position(x, y);
+            row[x] = position;
+        }
+        return position;
+    }
+    
+    /**
+     * Obtiene la celda vecina en una dirección
+     * @return Índice de la celda vecina o -1 si sale del tablero
+     */
+    public int getNeighbor(int cell, Direction direction) {
+        if (cell < 0) {
+            return -1;
+        }
+        int x = cell % width + direction.getDx();
+        int y = cell / width + direction.getDy();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return cellIndex(x, y);
+    }
+    
     /**
      * Agrega un objeto al tablero en una posición especí­fica
      */
     public void addObject(GameObject object) {
-        Position pos = object.getPosition();
-        if (isValidPosition(pos)) {
-            grid[pos.getX()][pos.getY()].add(object);
-            
-            if (object instanceof IceCream iceCream) {
-                iceCreams.add(iceCream);
+        beginMake();
+        insertObject(object, -1, -1, -1, UNDO_ADD);
+        endMake();
+    }
+    
+    /**
+     * Agrega un objeto en posiciones dadas de su celda y sus registros
+     * @param undoType Entrada que se registra para deshacer
+     */
+    private void insertObject(GameObject object, int slot, int typedIndex, int dangerousIndex, int undoType) {
+        if (attach(object, slot)) {
+            register(object, typedIndex, dangerousIndex);
+            pushUndo(undoType, object, null, -1, -1L);
+            for (GameEventListener listener : listeners) {
+                listener.objectAdded(object);
             }
         }
     }
@@ -75,59 +225,582 @@ public class Board {
      * Remueve un objeto del tablero
      */
     public void removeObject(GameObject object) {
-        Position pos = object.getPosition();
-        if (isValidPosition(pos)) {
-            grid[pos.getX()][pos.getY()].remove(object);
-            
-            if (object instanceof IceCream iceCream) {
-                iceCreams.remove(iceCream);
+        beginMake();
+        int slot = detach(object);
+        if (slot >= 0) {
+            long registry = unregister(object);
+            pushUndo(UNDO_REMOVE, object, null, slot, registry);
+            for (GameEventListener listener : listeners) {
+                listener.objectRemoved(object);
             }
         }
+        endMake();
     }
     
     /**
      * Mueve un objeto de una posición a otra
      */
     public void moveObject(GameObject object, Position newPosition) {
-        removeObject(object);
+        beginMake();
+        relocate(object, newPosition, -1, -1, -1);
+        endMake();
+    }
+    
+    /**
+     * Mueve un objeto dejándolo en posiciones dadas de su nueva celda y, si
+     * entra al tablero, de sus registros
+     */
+    private void relocate(GameObject object, Position newPosition, int slot, int typedIndex, int dangerousIndex) {
+        Position from = object.getPosition();
+        int fromSlot = detach(object);
+        boolean wasOnBoard = fromSlot >= 0;
         object.setPosition(newPosition);
-        addObject(object);
+        boolean isOnBoard = attach(object, slot);
+        long registry = -1L;
+        if (wasOnBoard && !isOnBoard) {
+            registry = unregister(object);
+        } else if (!wasOnBoard && isOnBoard) {
+            register(object, typedIndex, dangerousIndex);
+        }
+        pushUndo(UNDO_MOVE, object, from, fromSlot, registry);
+        
+        for (GameEventListener listener : listeners) {
+            if (wasOnBoard && isOnBoard) {
+                listener.objectMoved(object, from, newPosition);
+            } else if (wasOnBoard) {
+                listener.objectRemoved(object);
+            } else if (isOnBoard) {
+                listener.objectAdded(object);
+            }
+        }
+    }
+    
+    /**
+     * Ubica un objeto en la celda de su posición y actualiza las capas
+     * @param slot Posición en la celda, -1 para el final
+     * @return false si la posición está fuera del tablero
+     */
+    private boolean attach(GameObject object, int slot) {
+        Position pos = object.getPosition();
+        if (!isValidPosition(pos)) {
+            return false;
+        }
+        cells.add(pos.getX(), pos.getY(), object, slot);
+        trackChange(pos.getX(), pos.getY(), layerMaskOf(object));
+        object.zobristKey = zobristKey(object, pos.getY() * width + pos.getX());
+        hash ^= object.zobristKey;
+        return true;
+    }
+    
+    /**
+     * Quita un objeto de la celda de su posición y actualiza las capas
+     * @return Posición que tenía en la celda, -1 si no estaba en ella
+     */
+    private int detach(GameObject object) {
+        Position pos = object.getPosition();
+        if (!isValidPosition(pos)) {
+            return -1;
+        }
+        int slot = cells.remove(pos.getX(), pos.getY(), object);
+        if (slot >= 0) {
+            trackChange(pos.getX(), pos.getY(), layerMaskOf(object));
+            hash ^= object.zobristKey;
+            object.zobristKey = 0;
+        }
+        return slot;
+    }
+    
+    /**
+     * Agrega un objeto a los registros de su tipo
+     * @param typedIndex Posición en el registro de su tipo, -1 para el final
+     * @param dangerousIndex Posición en el registro de peligrosos, -1 para el final
+     */
+    private void register(GameObject object, int typedIndex, int dangerousIndex) {
+        if (object instanceof IceCream iceCream) {
+            insertInto(iceCreams, typedIndex, iceCream);
+            iceCream.setBoard(this);
+        } else if (object instanceof Enemy enemy) {
+            insertInto(enemies, typedIndex, enemy);
+        } else if (object instanceof Fruit fruit) {
+            insertInto(fruits, typedIndex, fruit);
+        } else if (object instanceof IceBlock iceBlock) {
+            insertInto(iceBlocks, typedIndex, iceBlock);
+        }
+        if (object instanceof Dangerous) {
+            insertInto(dangerousObjects, dangerousIndex, object);
+        }
+    }
+    
+    /**
+     * Quita un objeto de los registros de su tipo
+     * @return Posición que tenía en el registro de su tipo en los 32 bits altos
+     *         y en el de peligrosos en los bajos, -1 donde no estaba
+     */
+    private long unregister(GameObject object) {
+        int typedIndex = -1;
+        if (object instanceof IceCream iceCream) {
+            typedIndex = removeFrom(iceCreams, iceCream);
+            iceCream.setBoard(null);
+        } else if (object instanceof Enemy enemy) {
+            typedIndex = removeFrom(enemies, enemy);
+        } else if (object instanceof Fruit fruit) {
+            typedIndex = removeFrom(fruits, fruit);
+        } else if (object instanceof IceBlock iceBlock) {
+            typedIndex = removeFrom(iceBlocks, iceBlock);
+        }
+        int dangerousIndex = object instanceof Dangerous ? removeFrom(dangerousObjects, object) : -1;
+        return ((long) typedIndex << 32) | (dangerousIndex & 0xFFFFFFFFL);
+    }
+    
+    private static <T> void insertInto(List<T> list, int index, T element) {
+        if (index < 0 || index > list.size()) {
+            list.add(element);
+        } else {
+            list.add(index, element);
+        }
+    }
+    
+    private static <T> int removeFrom(List<T> list, T element) {
+        int index = list.indexOf(element);
+        if (index >= 0) {
+            list.remove(index);
+        }
+        return index;
+    }
+    
+    /**
+     * Activa o desactiva el registro de jugadas para deshacerlas con unmake.
+     * Al cambiarlo se descartan las jugadas registradas.
+     */
+    public void setUndoRecording(boolean recording) {
+        Arrays.fill(undoObjects, 0, undoSize, null);
+        Arrays.fill(undoPositions, 0, undoSize, null);
+        undoSize = 0;
+        undoMarkCount = 0;
+        makeDepth = 0;
+        undoRecording = recording;
+    }
+    
+    /**
+     * Indica si se registran las jugadas para deshacerlas
+     */
+    public boolean isUndoRecording() {
+        return undoRecording;
+    }
+    
+    /**
+     * Abre una jugada: los cambios hasta el endMake correspondiente se deshacen
+     * juntos con un solo unmake. Se puede anidar. Cada llamada pública que
+     * modifica el tablero ya es una jugada por sí sola.
+     */
+    public void beginMake() {
+        if (!undoRecording) {
+            return;
+        }
+        if (makeDepth++ == 0) {
+            if (undoMarkCount == undoMarks.length) {
+                undoMarks = Arrays.copyOf(undoMarks, Math.max(16, undoMarkCount * 2));
+            }
+            undoMarks[undoMarkCount++] = undoSize;
+        }
+    }
+    
+    /**
+     * Cierra la jugada abierta con beginMake
+     */
+    public void endMake() {
+        if (undoRecording && makeDepth > 0) {
+            makeDepth--;
+        }
+    }
+    
+    /**
+     * Deshace la última jugada registrada y deja las celdas y los registros
+     * exactamente como estaban, en el mismo orden. Los oyentes reciben los
+     * eventos inversos. Los contadores de versión siguen creciendo, ya que
+     * solo indican que algo cambió.
+     * @return false si no hay jugadas registradas
+     */
+    public boolean unmake() {
+        if (undoMarkCount == 0) {
+            return false;
+        }
+        int mark = undoMarks[--undoMarkCount];
+        undoRecording = false;
+        while (undoSize > mark) {
+            undoSize--;
+            int base = undoSize * UNDO_INTS;
+            GameObject object = undoObjects[undoSize];
+            switch (undoCodes[base]) {
+                case UNDO_ADD -> removeObject(object);
+                case UNDO_CREATE_ICE -> {
+                    removeObject(object);
+                    if (spareIceCount == spareIce.length) {
+                        spareIce = Arrays.copyOf(spareIce, Math.max(16, spareIceCount * 2));
+                    }
+                    spareIce[spareIceCount++] = (IceBlock) object;
+                }
+                case UNDO_REMOVE -> insertObject(object, undoCodes[base + 1], undoCodes[base + 2],
+                        undoCodes[base + 3], UNDO_ADD);
+                case UNDO_TURN -> turnObject((Movable) object,
+                        undoCodes[base + 1] < 0 ? null : Direction.values()[undoCodes[base + 1]]);
+                default -> relocate(object, undoPositions[undoSize], undoCodes[base + 1], undoCodes[base + 2],
+                        undoCodes[base + 3]);
+            }
+            undoObjects[undoSize] = null;
+            undoPositions[undoSize] = null;
+        }
+        undoRecording = true;
+        return true;
+    }
+    
+    /**
+     * Obtiene la cantidad de jugadas que se pueden deshacer
+     */
+    public int getUndoDepth() {
+        return undoMarkCount;
+    }
+    
+    /**
+     * Registra una entrada de deshacer si el registro está activo
+     * @param slot Posición que tenía el objeto en su celda
+     * @param registry Posiciones que tenía en los registros, como las retorna unregister
+     */
+    private void pushUndo(int type, GameObject object, Position from, int slot, long registry) {
+        if (!undoRecording) {
+            return;
+        }
+        if (undoSize == undoObjects.length) {
+            int capacity = Math.max(64, undoSize * 2);
+            undoCodes = Arrays.copyOf(undoCodes, capacity * UNDO_INTS);
+            undoObjects = Arrays.copyOf(undoObjects, capacity);
+            undoPositions = Arrays.copyOf(undoPositions, capacity);
+        }
+        int base = undoSize * UNDO_INTS;
+        undoCodes[base] = type;
+        undoCodes[base + 1] = slot;
+        undoCodes[base + 2] = (int) (registry >> 32);
+        undoCodes[base + 3] = (int) registry;
+        undoObjects[undoSize] = object;
+        undoPositions[undoSize] = from;
+        undoSize++;
+    }
+    
+    /**
+     * Suscribe un oyente a los eventos del tablero y del nivel
+     */
+    public void addListener(GameEventListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+    
+    /**
+     * Cancela la suscripción de un oyente
+     */
+    public void removeListener(GameEventListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameEventListener[] remaining = new GameEventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Avisa a los oyentes que un helado recolectó una fruta
+     */
+    void fireFruitCollected(Fruit fruit, IceCream collector) {
+        for (GameEventListener listener : listeners) {
+            listener.fruitCollected(fruit, collector);
+        }
+    }
+    
+    /**
+     * Avisa a los oyentes que un helado ganó puntos
+     */
+    void fireScoreChanged(IceCream iceCream, int points) {
+        for (GameEventListener listener : listeners) {
+            listener.scoreChanged(iceCream, points);
+        }
+    }
+    
+    /**
+     * Avisa a los oyentes que un helado fue eliminado
+     */
+    void fireIceCreamEliminated(IceCream iceCream) {
+        for (GameEventListener listener : listeners) {
+            listener.iceCreamEliminated(iceCream);
+        }
+    }
+    
+    /**
+     * Avisa a los oyentes que se activó una oleada de frutas
+     */
+    void fireWaveActivated(int waveIndex, List<Fruit> fruits) {
+        for (GameEventListener listener : listeners) {
+            listener.waveActivated(waveIndex, fruits);
+        }
     }
     
     /**
      * Obtiene todos los objetos en una posición especí­fica
      */
     public List<GameObject> getObjectsAt(Position position) {
+        List<GameObject> objects = new ArrayList<>();
+        if (isValidPosition(position)) {
+            cells.addTo(position.getX(), position.getY(), objects);
+        }
+        return objects;
+    }
+    
+    /**
+     * Recorre los objetos de una posición sin copiar la lista de la celda.
+     * Los objetos se toman al inicio del recorrido, por lo que la acción puede
+     * agregar o remover objetos del tablero sin afectar la iteración.
+     * No es seguro usarlo desde varios hilos a la vez.
+     * @param position Posición a recorrer
+     * @param action Acción a ejecutar sobre cada objeto
+     */
+    public void forEachObjectAt(Position position, Consumer<? super GameObject> action) {
         if (!isValidPosition(position)) {
-            return new ArrayList<>();
+            return;
+        }
+        int count = cells.count(position.getX(), position.getY());
+        if (count == 0) {
+            return;
+        }
+        
+        GameObject[] buffer = acquireVisitBuffer(count);
+        cells.copyTo(position.getX(), position.getY(), buffer);
+        
+        visitDepth++;
+        try {
+            for (int i = 0; i < count; i++) {
+                action.accept(buffer[i]);
+            }
+        } finally {
+            visitDepth--;
+            Arrays.fill(buffer, 0, count, null);
+        }
+    }
+    
+    /**
+     * Obtiene el buffer de recorrido del nivel de anidamiento actual
+     */
+    private GameObject[] acquireVisitBuffer(int size) {
+        if (visitDepth >= visitBuffers.length) {
+            visitBuffers = Arrays.copyOf(visitBuffers, visitBuffers.length * 2);
         }
-        return new ArrayList<>(grid[position.getX()][position.getY()]);
+        GameObject[] buffer = visitBuffers[visitDepth];
+        if (buffer == null || buffer.length < size) {
+            buffer = new GameObject[Math.max(size, 4)];
+            visitBuffers[visitDepth] = buffer;
+        }
+        return buffer;
+    }
+    
+    /**
+     * Recorre las celdas donde un helado comparte celda con un enemigo, una
+     * fogata o una baldosa caliente, cruzando las capas de ocupación.
+     * El orden lo define el almacenamiento y no cambia entre ejecuciones.
+     * @param action Acción que recibe el índice de cada celda
+     */
+    public void forEachCollisionCell(IntConsumer action) {
+        int hazards = (1 << ENEMY_LAYER) | (1 << HOT_TILE_LAYER) | (1 << BONFIRE_LAYER);
+        cells.forEachCellWith(ICE_CREAM_LAYER, hazards, action);
     }
     
     /**
      * Verifica si hay un obstáculo sólido en una posición
      */
     public boolean isSolidAt(Position position) {
-        List<GameObject> objects = getObjectsAt(position);
-        for (GameObject obj : objects) {
-            if (obj.isSolid()) {
-                return true;
-            }
-        }
-        return false;
+        return hasLayerAt(SOLID_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay un obstáculo sólido en una celda empaquetada
+     */
+    public boolean isSolidAt(int cell) {
+        return hasLayerAt(SOLID_LAYER, cell);
     }
     
     /**
      * Verifica si hay un bloque de hielo en una posición
      */
     public boolean hasIceBlockAt(Position position) {
-        List<GameObject> objects = getObjectsAt(position);
-        for (GameObject obj : objects) {
-            if (obj instanceof IceBlock) {
-                return true;
-            }
+        return hasLayerAt(ICE_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay un bloque de hielo en una celda empaquetada
+     */
+    public boolean hasIceBlockAt(int cell) {
+        return hasLayerAt(ICE_LAYER, cell);
+    }
+    
+    /**
+     * Verifica si hay un bloque de hielo creado por un jugador en una posición
+     */
+    public boolean hasPlayerIceBlockAt(Position position) {
+        return hasLayerAt(PLAYER_ICE_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay una fogata en una posición
+     */
+    public boolean hasBonfireAt(Position position) {
+        return hasLayerAt(BONFIRE_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay un enemigo en una posición
+     */
+    public boolean hasEnemyAt(Position position) {
+        return hasLayerAt(ENEMY_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay una fruta en una posición
+     */
+    public boolean hasFruitAt(Position position) {
+        return hasLayerAt(FRUIT_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay un helado en una posición
+     */
+    public boolean hasIceCreamAt(Position position) {
+        return hasLayerAt(ICE_CREAM_LAYER, position);
+    }
+    
+    /**
+     * Avanza el contador de ticks del tablero.
+     * Lo invoca el nivel al inicio de cada actualización.
+     */
+    public void advanceTick() {
+        tick++;
+    }
+    
+    /**
+     * Obtiene la cantidad de ticks transcurridos
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * Obtiene la versión estructural del tablero.
+     * Cambia cada vez que se agrega o remueve un objeto sólido o un helado.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Obtiene el hash Zobrist del tablero. Depende del tipo, la celda y la
+     * orientación de cada objeto y de si el hielo es del jugador, no del orden
+     * en que se agregaron; dos tableros con los mismos objetos tienen el mismo hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+    
+    /**
+     * Cambia la orientación de un objeto y actualiza el hash. Con el registro
+     * de deshacer activo el giro es una jugada que unmake revierte.
+     */
+    public void turnObject(Movable object, Direction facing) {
+        Direction previous = object.getFacingDirection();
+        if (previous == facing) {
+            return;
+        }
+        beginMake();
+        object.setFacingDirection(facing);
+        rehash((GameObject) object);
+        pushUndo(UNDO_TURN, (GameObject) object, null, previous == null ? -1 : previous.ordinal(), -1L);
+        endMake();
+    }
+    
+    /**
+     * Actualiza el hash tras cambiar la orientación de un objeto sin moverlo
+     */
+    private void rehash(GameObject object) {
+        Position pos = object.getPosition();
+        if (object.zobristKey == 0 || !isValidPosition(pos)) {
+            return;
+        }
+        long key = zobristKey(object, pos.getY() * width + pos.getX());
+        hash ^= object.zobristKey ^ key;
+        object.zobristKey = key;
+    }
+    
+    /**
+     * Calcula la llave Zobrist de un objeto en una celda. En lugar de una tabla
+     * de números aleatorios por celda, que no cabría en tableros grandes, se
+     * mezclan tipo, celda, orientación y hielo del jugador con SplitMix64.
+     */
+    static long zobristKey(GameObject object, int cell) {
+        long code = ((long) cell << 32) | ((object.getClass().getName().hashCode() & 0x0FFFFFFFL) << 4);
+        if (object instanceof Movable movable && movable.getFacingDirection() != null) {
+            code |= (movable.getFacingDirection().ordinal() + 1) << 1;
+        }
+        if (object instanceof IceBlock iceBlock && iceBlock.isPlayerCreated()) {
+            code |= 1;
+        }
+        return mix(code);
+    }
+    
+    /**
+     * Mezcla los bits de un valor con el finalizador de SplitMix64
+     */
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Obtiene la cantidad de cambios de transitabilidad ocurridos en el tablero
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+    
+    /**
+     * Obtiene el momento del último cambio de transitabilidad de una celda.
+     * Se compara con getChangeCount() para saber si la celda cambió desde entonces.
+     */
+    public long getCellChangeStamp(int cell) {
+        return cells.getChangeStamp(cell % width, cell / width);
+    }
+    
+    /**
+     * Obtiene el campo de distancias compartido hacia los helados vivos.
+     * Se sincroniza como máximo una vez por tick, o cuando cambia la estructura,
+     * reparando solo las celdas afectadas.
+     * @param breaksIce Indica si el hielo se considera transitable
+     */
+    public DistanceField getDistanceField(boolean breaksIce) {
+        int index = breaksIce ? 1 : 0;
+        if (distanceFields[index] == null) {
+            distanceFields[index] = new DistanceField(this, breaksIce);
+        }
+        return distanceFields[index];
+    }
+    
+    /**
+     * Sincroniza los cálculos perezosos del tablero, como los campos de distancias,
+     * para que después se pueda leer desde varios hilos sin modificarlo
+     */
+    void prepareConcurrentReads() {
+        getDistanceField(false).refresh();
+        if (distanceFields[1] != null) {
+            distanceFields[1].refresh();
         }
-        return false;
     }
     
     /**
@@ -151,10 +824,41 @@ public class Board {
     }
     
     /**
-     * Obtiene todos los helados del tablero
+     * Obtiene todos los helados del tablero, como vista de solo lectura
      */
     public List<IceCream> getIceCreams() {
-        return new ArrayList<>(iceCreams);
+        return iceCreamsView;
+    }
+    
+    /**
+     * Obtiene los enemigos del tablero.
+     * La lista es una vista de solo lectura que refleja el tablero; si se van a
+     * agregar o remover objetos mientras se recorre, se debe copiar antes.
+     */
+    public List<Enemy> getEnemies() {
+        return enemiesView;
+    }
+    
+    /**
+     * Obtiene las frutas activas del tablero, como vista de solo lectura
+     */
+    public List<Fruit> getFruits() {
+        return fruitsView;
+    }
+    
+    /**
+     * Obtiene los objetos peligrosos del tablero (enemigos, fogatas y baldosas
+     * calientes), como vista de solo lectura
+     */
+    public List<GameObject> getDangerousObjects() {
+        return dangerousObjectsView;
+    }
+    
+    /**
+     * Obtiene los bloques de hielo del tablero, como vista de solo lectura
+     */
+    public List<IceBlock> getIceBlocks() {
+        return iceBlocksView;
     }
     
     /**
@@ -162,11 +866,7 @@ public class Board {
      */
     public List<GameObject> getAllObjects() {
         List<GameObject> allObjects = new ArrayList<>();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                allObjects.addAll(grid[x][y]);
-            }
-        }
+        cells.addAllTo(allObjects);
         return allObjects;
     }
     
@@ -178,9 +878,10 @@ public class Board {
      */
     public List<IceBlock> createIceBlocks(Position startPosition, Direction direction) {
         List<IceBlock> createdBlocks = new ArrayList<>();
-        Position current = startPosition.move(direction);
+        int current = getNeighbor(getCellIndex(startPosition), direction);
+        beginMake();
         
-        while (isValidPosition(current)) {
+        while (current >= 0) {
             if (hasIceBlockAt(current)) {
                 break;
             }
@@ -189,18 +890,27 @@ public class Board {
                 break;
             }
             
-            IceBlock newBlock = new IceBlock(current, true);
-            addObject(newBlock);
-            
-            if(hasHotTileAt(current)){
-                removeObject(newBlock);
-            } else {
+            // Sobre una baldosa caliente el hielo se derrite al instante
+            if (!hasHotTileAt(current)) {
+                IceBlock newBlock;
+                if (spareIceCount > 0) {
+                    newBlock = spareIce[--spareIceCount];
+                    spareIce[spareIceCount] = null;
+                    newBlock.setPosition(getPosition(current));
+                } else {
+                    newBlock = new IceBlock(getPosition(current), true);
+                }
+                insertObject(newBlock, -1, -1, -1, UNDO_CREATE_ICE);
                 createdBlocks.add(newBlock);
+                for (GameEventListener listener : listeners) {
+                    listener.iceCreated(newBlock);
+                }
             }
             
-            current = current.move(direction);
+            current = getNeighbor(current, direction);
         }
         
+        endMake();
         return createdBlocks;
     }
     
@@ -213,10 +923,12 @@ public class Board {
      */
     public List<IceBlock> breakIceBlocks(Position startPosition, Direction direction) {
         List<IceBlock> brokenBlocks = new ArrayList<>();
-        Position current = startPosition.move(direction);
+        int current = getNeighbor(getCellIndex(startPosition), direction);
+        beginMake();
         
-        while (isValidPosition(current) && hasIceBlockAt(current)) {
-            List<GameObject> objects = getObjectsAt(current);
+        scan:
+        while (current >= 0 && hasIceBlockAt(current)) {
+            List<GameObject> objects = getObjectsAt(getPosition(current));
             
             for (GameObject obj : objects) {
                 if (obj instanceof IceBlock iceBlock) {
@@ -224,16 +936,20 @@ public class Board {
                     if (iceBlock.isPlayerCreated()) {
                         removeObject(obj);
                         brokenBlocks.add(iceBlock);
+                        for (GameEventListener listener : listeners) {
+                            listener.iceBroken(iceBlock);
+                        }
                     } else {
                         // Si encontramos un bloque del nivel, no detruye 
-                        return brokenBlocks;
+                        break scan;
                     }
                 }
             }
             
-            current = current.move(direction);
+            current = getNeighbor(current, direction);
         }
         
+        endMake();
         return brokenBlocks;
     }
 
@@ -242,12 +958,92 @@ public class Board {
      * Verifica si hay una loseta caliente en una posición
      */
     public boolean hasHotTileAt(Position position) {
-        List<GameObject> objects = getObjectsAt(position);
-        for (GameObject obj : objects) {
-            if (obj instanceof HotTile) {
-                return true;
+        return hasLayerAt(HOT_TILE_LAYER, position);
+    }
+    
+    /**
+     * Verifica si hay una loseta caliente en una celda empaquetada
+     */
+    public boolean hasHotTileAt(int cell) {
+        return hasLayerAt(HOT_TILE_LAYER, cell);
+    }
+    
+    /**
+     * Calcula el índice lineal de una celda dentro de las capas
+     */
+    private int cellIndex(int x, int y) {
+        return y * width + x;
+    }
+    
+    /**
+     * Consulta el bit de una capa en una posición
+     */
+    private boolean hasLayerAt(int layer, Position position) {
+        if (!isValidPosition(position)) {
+            return false;
+        }
+        return hasLayerAt(layer, position.getX(), position.getY());
+    }
+    
+    /**
+     * Consulta el bit de una capa en una celda empaquetada
+     */
+    private boolean hasLayerAt(int layer, int cell) {
+        if (cell < 0) {
+            return false;
+        }
+        return hasLayerAt(layer, cell % width, cell / width);
+    }
+    
+    /**
+     * Consulta el bit de una capa en unas coordenadas válidas
+     */
+    private boolean hasLayerAt(int layer, int x, int y) {
+        return cells.hasLayer(layer, x, y);
+    }
+    
+    /**
+     * Incrementa la versión y avisa a los campos de distancia si el cambio los afecta
+     */
+    private void trackChange(int x, int y, int mask) {
+        if ((mask & (1 << SOLID_LAYER)) != 0) {
+            int cell = cellIndex(x, y);
+            cells.setChangeStamp(x, y, ++changeCount);
+            for (DistanceField field : distanceFields) {
+                if (field != null) {
+                    field.cellChanged(cell);
+                }
+            }
+        }
+        if ((mask & ((1 << SOLID_LAYER) | (1 << ICE_CREAM_LAYER))) != 0) {
+            version++;
+        }
+    }
+    
+    /**
+     * Obtiene la máscara de capas que ocupa un objeto
+     */
+    static int layerMaskOf(GameObject object) {
+        int mask = 0;
+        if (object.isSolid()) {
+            mask |= 1 << SOLID_LAYER;
+        }
+        if (object instanceof IceBlock iceBlock) {
+            mask |= 1 << ICE_LAYER;
+            if (iceBlock.isPlayerCreated()) {
+                mask |= 1 << PLAYER_ICE_LAYER;
             }
+        } else if (object instanceof HotTile) {
+            mask |= 1 << HOT_TILE_LAYER;
+        } else if (object instanceof Bonfire) {
+            mask |= 1 << BONFIRE_LAYER;
+        } else if (object instanceof Enemy) {
+            mask |= 1 << ENEMY_LAYER;
+        } else if (object instanceof Fruit) {
+            mask |= 1 << FRUIT_LAYER;
+        } else if (object instanceof IceCream) {
+            mask |= 1 << ICE_CREAM_LAYER;
         }
-        return false;
+        return mask;
     }
 }
@@ -0,0 +1,637 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estado inmutable de un tablero para que los jugadores de máquina exploren
+ * jugadas sin tocar el nivel real.
+ * Guarda cada objeto como un long empaquetado (presencia, vida, fruta
+ * recolectada, dirección, capas, celda y puntaje o puntos) en un trie
+ * persistente de 32 ramas por identificador, y los identificadores de cada
+ * celda en otro trie por celda empaquetada. Cambiar un objeto copia solo el
+ * camino hasta su hoja, así cada jugada cuesta O(log n) y el estado anterior
+ * sigue siendo válido y comparte todo lo demás.
+ *
+ * Los identificadores de los helados siguen el orden de Board.getIceCreams().
+ * El modelo de avance aplica las acciones de un helado con sus efectos
+ * inmediatos; los enemigos solo cambian si se mueven con moveEntity.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public final class BoardState {
+    private static final long PRESENT = 1L;
+    private static final long ALIVE = 1L << 1;
+    private static final long COLLECTED = 1L << 2;
+    private static final int FACING_SHIFT = 3; // 0 sin dirección, si no el ordinal más uno
+    private static final long FACING_MASK = 7L << FACING_SHIFT;
+    private static final int LAYERS_SHIFT = 6;
+    private static final int CELL_SHIFT = 14;
+    private static final long CELL_MASK = (1L << 26) - 1;
+    private static final int VALUE_SHIFT = 40; // Puntaje de un helado o puntos de una fruta
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int[] NO_IDS = new int[0];
+
+    private static final int HAZARD_LAYERS = (1 << Board.HOT_TILE_LAYER) | (1 << Board.BONFIRE_LAYER)
+            | (1 << Board.ENEMY_LAYER);
+    private static final int PLAYER_ICE_LAYERS = (1 << Board.SOLID_LAYER) | (1 << Board.ICE_LAYER)
+            | (1 << Board.PLAYER_ICE_LAYER);
+
+    private final int width;
+    private final int height;
+    private final Trie entities; // Estado empaquetado por identificador, hojas long[32]
+    private final Trie cells; // Identificadores por celda, hojas Object[32] de int[]
+    private final int entityCount;
+    private final int[] iceCreamIds; // Compartido entre estados, nunca se modifica
+    private final long tick;
+    private final int timeRemaining;
+    private final int waveIndex;
+    private final boolean completed;
+    private final Object origin; // Espacio de identificadores del historial del nivel exportado
+    private final int baseCount; // Objetos del nivel al exportar; los demás los creó el modelo
+    private final long hash; // Suma XOR de las llaves de los objetos presentes
+
+    /**
+     * Trie persistente de 32 ramas. Sus hojas son arreglos que nunca se
+     * modifican: cambiar una clave copia la hoja y el camino hasta ella.
+     */
+    private static final class Trie {
+        private static final int BITS = 5;
+        private static final int BRANCHES = 1 << BITS;
+        private static final int MASK = BRANCHES - 1;
+        private static final Trie EMPTY = new Trie(null, BITS);
+
+        private final Object root;
+        private final int shift; // Desplazamiento del nivel de la raíz
+
+        private Trie(Object root, int shift) {
+            this.root = root;
+            this.shift = shift;
+        }
+
+        /**
+         * Obtiene la hoja de una clave, null si nunca se escribió
+         */
+        private Object leaf(int key) {
+            if (((long) key >>> (shift + BITS)) != 0) {
+                return null;
+            }
+            Object node = root;
+            for (int level = shift; level > 0 && node != null; level -= BITS) {
+                node = ((Object[]) node)[(key >>> level) & MASK];
+            }
+            return node;
+        }
+
+        /**
+         * Retorna un trie con la hoja de una clave reemplazada
+         */
+        private Trie withLeaf(int key, Object leaf) {
+            Object newRoot = root;
+            int newShift = shift;
+            while (((long) key >>> (newShift + BITS)) != 0) {
+                Object[] grown = new Object[BRANCHES];
+                grown[0] = newRoot;
+                newRoot = grown;
+                newShift += BITS;
+            }
+            return new Trie(assoc(newRoot, newShift, key, leaf), newShift);
+        }
+
+        private static Object assoc(Object node, int level, int key, Object leaf) {
+            if (level == 0) {
+                return leaf;
+            }
+            Object[] copy = node == null ? new Object[BRANCHES] : ((Object[]) node).clone();
+            int i = (key >>> level) & MASK;
+            copy[i] = assoc(copy[i], level - BITS, key, leaf);
+            return copy;
+        }
+    }
+
+    private BoardState(int width, int height, Trie entities, Trie cells, int entityCount, int[] iceCreamIds,
+                       long tick, int timeRemaining, int waveIndex, boolean completed, Object origin, int baseCount,
+                       long hash) {
+        this.width = width;
+        this.height = height;
+        this.entities = entities;
+        this.cells = cells;
+        this.entityCount = entityCount;
+        this.iceCreamIds = iceCreamIds;
+        this.tick = tick;
+        this.timeRemaining = timeRemaining;
+        this.waveIndex = waveIndex;
+        this.completed = completed;
+        this.origin = origin;
+        this.baseCount = baseCount;
+        this.hash = hash;
+    }
+
+    private BoardState with(Trie entities, Trie cells, int entityCount, long hash) {
+        return new BoardState(width, height, entities, cells, entityCount, iceCreamIds,
+                tick, timeRemaining, waveIndex, completed, origin, baseCount, hash);
+    }
+
+    /**
+     * Captura el estado del tablero de un nivel
+     * @param history Historial que asigna los identificadores de los objetos
+     */
+    static BoardState capture(Board board, LevelHistory history, long tick, int timeRemaining,
+                              int waveIndex, boolean completed) {
+        List<GameObject> onBoard = board.getAllObjects();
+        for (GameObject obj : onBoard) {
+            history.idOf(obj);
+        }
+        int count = history.objectCount();
+
+        long[] codes = new long[count];
+        for (int id = 0; id < count; id++) {
+            GameObject obj = history.objectAt(id);
+            codes[id] = obj == null ? 0 : encode(obj, board); // Los retirados quedan ausentes
+        }
+        Trie cells = Trie.EMPTY;
+        int runCell = -1;
+        int[] run = new int[4];
+        int runLength = 0;
+        for (GameObject obj : onBoard) { // Los objetos de una misma celda llegan seguidos
+            int id = history.idOf(obj);
+            codes[id] |= PRESENT;
+            int cell = board.getCellIndex(obj.getPosition());
+            if (cell != runCell && runLength > 0) {
+                cells = withIds(cells, runCell, Arrays.copyOf(run, runLength));
+                runLength = 0;
+            }
+            runCell = cell;
+            if (runLength == run.length) {
+                run = Arrays.copyOf(run, runLength * 2);
+            }
+            run[runLength++] = id;
+        }
+        if (runLength > 0) {
+            cells = withIds(cells, runCell, Arrays.copyOf(run, runLength));
+        }
+
+        long hash = 0;
+        for (int id = 0; id < count; id++) {
+            hash ^= keyOf(id, codes[id]);
+        }
+        Trie entities = Trie.EMPTY;
+        for (int start = 0; start < count; start += Trie.BRANCHES) {
+            long[] leaf = new long[Trie.BRANCHES];
+            System.arraycopy(codes, start, leaf, 0, Math.min(Trie.BRANCHES, count - start));
+            entities = entities.withLeaf(start, leaf);
+        }
+
+        List<IceCream> iceCreams = board.getIceCreams();
+        int[] iceCreamIds = new int[iceCreams.size()];
+        for (int i = 0; i < iceCreamIds.length; i++) {
+            iceCreamIds[i] = history.idOf(iceCreams.get(i));
+        }
+        return new BoardState(board.getWidth(), board.getHeight(), entities, cells, count, iceCreamIds,
+                tick, timeRemaining, waveIndex, completed, history.getIdSpace(), count, hash);
+    }
+
+    /**
+     * Lleva el tablero al estado. Los objetos creados por el modelo de avance,
+     * que siempre son bloques de hielo, se agregan como objetos nuevos.
+     */
+    void applyTo(Board board, LevelHistory history) {
+        for (GameObject obj : board.getAllObjects()) {
+            int id = history.idOf(obj);
+            if (id >= baseCount || !isPresent(id)) {
+                board.removeObject(obj);
+            }
+        }
+        boolean[] onBoard = new boolean[baseCount];
+        for (GameObject obj : board.getAllObjects()) {
+            onBoard[history.idOf(obj)] = true;
+        }
+
+        for (int id = 0; id < baseCount; id++) {
+            GameObject obj = history.objectAt(id);
+            long code = entity(id);
+            if (obj == null) {
+                continue;
+            }
+            decode(board, obj, code);
+            if ((code & PRESENT) == 0) {
+                continue;
+            }
+            Position position = board.getPosition(cellOf(code));
+            if (!onBoard[id]) {
+                obj.setPosition(position);
+                board.addObject(obj);
+            } else if (!obj.getPosition().equals(position)) {
+                board.moveObject(obj, position);
+            }
+        }
+        for (int id = baseCount; id < entityCount; id++) {
+            long code = entity(id);
+            if ((code & PRESENT) != 0) {
+                boolean playerCreated = (layersOf(code) & (1 << Board.PLAYER_ICE_LAYER)) != 0;
+                board.addObject(new IceBlock(board.getPosition(cellOf(code)), playerCreated));
+            }
+        }
+    }
+
+    /**
+     * Indica si el estado se exportó del nivel dueño de un historial y sus
+     * identificadores siguen vigentes
+     */
+    boolean isFrom(LevelHistory history) {
+        return origin == history.getIdSpace();
+    }
+
+    /**
+     * Obtiene el hash del estado. Depende de los objetos presentes y su
+     * estado, no del tiempo; dos estados a los que se llega por jugadas en
+     * distinto orden tienen el mismo hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Obtiene el ancho del tablero
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Obtiene la altura del tablero
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Obtiene el tick del nivel al exportar el estado
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Obtiene el tiempo restante del nivel al exportar el estado
+     */
+    public int getTimeRemaining() {
+        return timeRemaining;
+    }
+
+    /**
+     * Obtiene la oleada activa del nivel al exportar el estado
+     */
+    public int getWaveIndex() {
+        return waveIndex;
+    }
+
+    /**
+     * Indica si el nivel estaba completado al exportar el estado
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Obtiene la cantidad de identificadores usados, de 0 a este valor menos uno
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Obtiene el identificador de un helado
+     * @param index Índice del helado en Board.getIceCreams() al exportar
+     */
+    public int getIceCreamId(int index) {
+        return iceCreamIds[index];
+    }
+
+    /**
+     * Obtiene la cantidad de helados del estado
+     */
+    public int getIceCreamCount() {
+        return iceCreamIds.length;
+    }
+
+    /**
+     * Indica si un objeto está en el tablero
+     */
+    public boolean isPresent(int id) {
+        return (entity(id) & PRESENT) != 0;
+    }
+
+    /**
+     * Obtiene la celda de un objeto
+     */
+    public int getCell(int id) {
+        return cellOf(entity(id));
+    }
+
+    /**
+     * Obtiene la dirección de un objeto móvil
+     * @return La dirección, o null si no tiene
+     */
+    public Direction getFacing(int id) {
+        return facingOf(entity(id));
+    }
+
+    /**
+     * Indica si un helado sigue vivo
+     */
+    public boolean isAlive(int id) {
+        return (entity(id) & ALIVE) != 0;
+    }
+
+    /**
+     * Indica si una fruta fue recolectada
+     */
+    public boolean isCollected(int id) {
+        return (entity(id) & COLLECTED) != 0;
+    }
+
+    /**
+     * Obtiene el puntaje de un helado
+     */
+    public int getScore(int id) {
+        return (int) (entity(id) >>> VALUE_SHIFT);
+    }
+
+    /**
+     * Obtiene una copia de los identificadores de una celda, en orden de llegada
+     */
+    public int[] getIdsAt(int cell) {
+        return idsAt(cell).clone();
+    }
+
+    /**
+     * Verifica si una celda está bloqueada
+     */
+    public boolean isSolidAt(int cell) {
+        return (layersAt(cell) & (1 << Board.SOLID_LAYER)) != 0;
+    }
+
+    /**
+     * Verifica si una celda tiene un enemigo, una fogata o una baldosa caliente
+     */
+    public boolean isDangerousAt(int cell) {
+        return (layersAt(cell) & HAZARD_LAYERS) != 0;
+    }
+
+    /**
+     * Verifica si una celda tiene una fruta sin recolectar
+     */
+    public boolean hasFruitAt(int cell) {
+        return (layersAt(cell) & (1 << Board.FRUIT_LAYER)) != 0;
+    }
+
+    /**
+     * Obtiene la celda vecina en una dirección
+     * @return Índice de la celda vecina o -1 si sale del tablero
+     */
+    public int getNeighbor(int cell, Direction direction) {
+        int x = cell % width + direction.getDx();
+        int y = cell / width + direction.getDy();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Retorna el estado con un objeto movido a otra celda, sin aplicar reglas
+     */
+    public BoardState moveEntity(int id, int cell) {
+        long code = entity(id);
+        if ((code & PRESENT) == 0 || cellOf(code) == cell) {
+            return this;
+        }
+        Trie newCells = withIds(cells, cellOf(code), without(idsAt(cellOf(code)), id));
+        int[] target = idsAt(cell);
+        int[] appended = Arrays.copyOf(target, target.length + 1);
+        appended[target.length] = id;
+        newCells = withIds(newCells, cell, appended);
+        long moved = (code & ~(CELL_MASK << CELL_SHIFT)) | ((long) cell << CELL_SHIFT);
+        return with(withEntity(entities, id, moved), newCells, entityCount, rekey(hash, id, code, moved));
+    }
+
+    /**
+     * Retorna el estado con un objeto mirando hacia otra dirección
+     */
+    public BoardState turnEntity(int id, Direction facing) {
+        long code = entity(id);
+        long turned = withFacing(code, facing);
+        if ((code & PRESENT) == 0 || turned == code) {
+            return this;
+        }
+        return with(withEntity(entities, id, turned), cells, entityCount, rekey(hash, id, code, turned));
+    }
+
+    /**
+     * Aplica la acción de un helado con sus efectos inmediatos: pisar un
+     * peligro lo elimina y pisar una fruta la recolecta. Crear y romper hielo
+     * siguen las mismas reglas que Board.
+     * @param iceCreamId Identificador del helado
+     * @return El nuevo estado; este no cambia
+     */
+    public BoardState apply(int iceCreamId, GameAction action) {
+        long code = entity(iceCreamId);
+        if ((code & PRESENT) == 0 || (code & ALIVE) == 0) {
+            return this;
+        }
+        return switch (action) {
+            case NONE -> this;
+            case CREATE_ICE -> createIce(cellOf(code), getFacing(iceCreamId));
+            case BREAK_ICE -> breakIce(cellOf(code), getFacing(iceCreamId));
+            default -> move(iceCreamId, code, action.getDirection());
+        };
+    }
+
+    private BoardState move(int id, long code, Direction direction) {
+        long faced = withFacing(code, direction);
+        BoardState next = with(withEntity(entities, id, faced), cells, entityCount, rekey(hash, id, code, faced));
+        int target = getNeighbor(cellOf(code), direction);
+        if (target < 0 || isSolidAt(target)) {
+            return next;
+        }
+
+        next = next.moveEntity(id, target);
+        int layers = next.layersAt(target);
+        if ((layers & HAZARD_LAYERS) != 0) {
+            long current = next.entity(id);
+            return next.with(withEntity(next.entities, id, current & ~ALIVE), next.cells, entityCount,
+                    rekey(next.hash, id, current, current & ~ALIVE));
+        }
+        if ((layers & (1 << Board.FRUIT_LAYER)) != 0) {
+            for (int other : idsAt(target)) {
+                long otherCode = entity(other);
+                if ((layersOf(otherCode) & (1 << Board.FRUIT_LAYER)) != 0) {
+                    long current = next.entity(id);
+                    long collector = current + ((otherCode >>> VALUE_SHIFT) << VALUE_SHIFT);
+                    long collected = (otherCode & ~PRESENT) | COLLECTED;
+                    Trie newEntities = withEntity(next.entities, id, collector);
+                    newEntities = withEntity(newEntities, other, collected);
+                    long newHash = rekey(rekey(next.hash, id, current, collector), other, otherCode, collected);
+                    next = next.with(newEntities, withIds(next.cells, target, without(next.idsAt(target), other)),
+                            entityCount, newHash);
+                }
+            }
+        }
+        return next;
+    }
+
+    private BoardState createIce(int start, Direction direction) {
+        BoardState next = this;
+        int current = getNeighbor(start, direction);
+        while (current >= 0) {
+            int layers = next.layersAt(current);
+            if ((layers & ((1 << Board.ICE_LAYER) | (1 << Board.SOLID_LAYER))) != 0) {
+                break;
+            }
+            // Sobre una baldosa caliente el hielo se derrite al instante
+            if ((layers & (1 << Board.HOT_TILE_LAYER)) == 0) {
+                int id = next.entityCount;
+                long code = PRESENT | ((long) PLAYER_ICE_LAYERS << LAYERS_SHIFT) | ((long) current << CELL_SHIFT);
+                int[] ids = next.idsAt(current);
+                int[] appended = Arrays.copyOf(ids, ids.length + 1);
+                appended[ids.length] = id;
+                next = next.with(withEntity(next.entities, id, code), withIds(next.cells, current, appended), id + 1,
+                        next.hash ^ keyOf(id, code));
+            }
+            current = getNeighbor(current, direction);
+        }
+        return next;
+    }
+
+    private BoardState breakIce(int start, Direction direction) {
+        BoardState next = this;
+        int current = getNeighbor(start, direction);
+        while (current >= 0 && (next.layersAt(current) & (1 << Board.ICE_LAYER)) != 0) {
+            for (int id : next.idsAt(current)) {
+                long code = next.entity(id);
+                int layers = layersOf(code);
+                if ((layers & (1 << Board.ICE_LAYER)) == 0) {
+                    continue;
+                }
+                if ((layers & (1 << Board.PLAYER_ICE_LAYER)) == 0) {
+                    return next; // El hielo del nivel no se rompe
+                }
+                next = next.with(withEntity(next.entities, id, code & ~PRESENT),
+                        withIds(next.cells, current, without(next.idsAt(current), id)), entityCount,
+                        next.hash ^ keyOf(id, code));
+            }
+            current = getNeighbor(current, direction);
+        }
+        return next;
+    }
+
+    private long entity(int id) {
+        long[] leaf = (long[]) entities.leaf(id);
+        return leaf == null ? 0 : leaf[id & Trie.MASK];
+    }
+
+    private int[] idsAt(int cell) {
+        Object[] leaf = (Object[]) cells.leaf(cell);
+        if (leaf == null || leaf[cell & Trie.MASK] == null) {
+            return NO_IDS;
+        }
+        return (int[]) leaf[cell & Trie.MASK];
+    }
+
+    private int layersAt(int cell) {
+        int layers = 0;
+        for (int id : idsAt(cell)) {
+            layers |= layersOf(entity(id));
+        }
+        return layers;
+    }
+
+    /**
+     * Llave de un objeto para el hash. Los objetos ausentes no aportan y los
+     * bloques de hielo del jugador no dependen de su identificador, que
+     * cambia según el orden en que se crearon.
+     */
+    private static long keyOf(int id, long code) {
+        if ((code & PRESENT) == 0) {
+            return 0;
+        }
+        boolean interchangeable = layersOf(code) == PLAYER_ICE_LAYERS;
+        return Board.mix(code ^ (interchangeable ? 0 : (id + 1L) * 0x9E3779B97F4A7C15L));
+    }
+
+    private static long rekey(long hash, int id, long oldCode, long newCode) {
+        return hash ^ keyOf(id, oldCode) ^ keyOf(id, newCode);
+    }
+
+    private static Trie withEntity(Trie entities, int id, long code) {
+        long[] leaf = (long[]) entities.leaf(id);
+        leaf = leaf == null ? new long[Trie.BRANCHES] : leaf.clone();
+        leaf[id & Trie.MASK] = code;
+        return entities.withLeaf(id, leaf);
+    }
+
+    private static Trie withIds(Trie cells, int cell, int[] ids) {
+        Object[] leaf = (Object[]) cells.leaf(cell);
+        leaf = leaf == null ? new Object[Trie.BRANCHES] : leaf.clone();
+        leaf[cell & Trie.MASK] = ids.length == 0 ? null : ids;
+        return cells.withLeaf(cell, leaf);
+    }
+
+    private static int[] without(int[] ids, int id) {
+        int[] result = new int[ids.length - 1];
+        int j = 0;
+        for (int other : ids) {
+            if (other != id && j < result.length) {
+                result[j++] = other;
+            }
+        }
+        return result;
+    }
+
+    private static int cellOf(long code) {
+        return (int) ((code >>> CELL_SHIFT) & CELL_MASK);
+    }
+
+    private static Direction facingOf(long code) {
+        int facing = (int) ((code & FACING_MASK) >>> FACING_SHIFT);
+        return facing == 0 ? null : DIRECTIONS[facing - 1];
+    }
+
+    private static long withFacing(long code, Direction facing) {
+        return (code & ~FACING_MASK) | ((long) (facing.ordinal() + 1) << FACING_SHIFT);
+    }
+
+    private static int layersOf(long code) {
+        return (int) ((code >>> LAYERS_SHIFT) & 0xFF);
+    }
+
+    private static long encode(GameObject obj, Board board) {
+        long code = (long) Math.max(board.getCellIndex(obj.getPosition()), 0) << CELL_SHIFT;
+        code |= (long) Board.layerMaskOf(obj) << LAYERS_SHIFT;
+        if (obj instanceof Movable movable && movable.getFacingDirection() != null) {
+            code = withFacing(code, movable.getFacingDirection());
+        }
+        if (obj instanceof IceCream iceCream) {
+            code |= iceCream.isAlive() ? ALIVE : 0;
+            code |= (long) iceCream.getScore() << VALUE_SHIFT;
+        } else if (obj instanceof Fruit fruit) {
+            code |= fruit.isCollected() ? COLLECTED : 0;
+            code |= (long) fruit.getPoints() << VALUE_SHIFT;
+        }
+        return code;
+    }
+
+    private static void decode(Board board, GameObject obj, long code) {
+        if (obj instanceof Movable movable && facingOf(code) != null) {
+            board.turnObject(movable, facingOf(code));
+        }
+        if (obj instanceof IceCream iceCream) {
+            iceCream.restoreState((code & ALIVE) != 0, (int) (code >>> VALUE_SHIFT));
+        } else if (obj instanceof Fruit fruit) {
+            fruit.restoreCollected((code & COLLECTED) != 0);
+        }
+    }
+}
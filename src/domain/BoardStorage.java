@@ -0,0 +1,13 @@
+package domain;
+
+/**
+ * Enumeración de los almacenamientos de celdas de un tablero.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public enum BoardStorage {
+    HEAP,     // Bloques en el heap que se crean al recibir objetos
+    OFF_HEAP  // Memoria directa fuera del heap, no la recorre el recolector de basura
+}
@@ -30,20 +30,7 @@ public class Bonfire extends Obstacle implements Dangerous {
     
     @Override
     public void update(Board board) {
-        checkCollisions(board);
-    }
-    
-    /**
-     * Verifica si hay helados en la posición de la fogata
-     */
-    private void checkCollisions(Board board) {
-        for (GameObject obj : board.getObjectsAt(position)) {
-            if (obj instanceof IceCream iceCream) {
-                if (iceCream.isAlive()) {
-                    onContact(iceCream);
-                }
-            }
-        }
+        // Las colisiones con helados se resuelven en la fase de colisiones del nivel
     }
     
     @Override
@@ -0,0 +1,72 @@
+package domain;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Almacenamiento de las celdas de un tablero: los objetos de cada celda en
+ * orden de llegada, sus capas de ocupación y la marca del último cambio de
+ * transitabilidad. Las coordenadas que recibe ya están dentro del tablero.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+interface CellStore {
+    int LAYER_COUNT = 8;
+
+    /**
+     * Agrega un objeto a una celda y enciende sus capas
+     * @param index Posición en la celda; si es negativa o pasa del final, se agrega al final
+     */
+    void add(int x, int y, GameObject object, int index);
+
+    /**
+     * Quita un objeto de una celda, conservando el orden de los demás, y recalcula sus capas
+     * @return Posición que tenía el objeto en la celda, -1 si no estaba
+     */
+    int remove(int x, int y, GameObject object);
+
+    /**
+     * Cuenta los objetos de una celda
+     */
+    int count(int x, int y);
+
+    /**
+     * Copia en orden los objetos de una celda a un arreglo con espacio suficiente
+     */
+    void copyTo(int x, int y, GameObject[] target);
+
+    /**
+     * Agrega en orden los objetos de una celda a una lista
+     */
+    void addTo(int x, int y, List<GameObject> target);
+
+    /**
+     * Agrega los objetos de todas las celdas a una lista
+     */
+    void addAllTo(List<GameObject> target);
+
+    /**
+     * Consulta el bit de una capa en una celda
+     */
+    boolean hasLayer(int layer, int x, int y);
+
+    /**
+     * Recorre las celdas que tienen una capa y al menos una de otras capas
+     * @param layer Capa requerida
+     * @param anyOf Máscara de las otras capas
+     * @param action Acción que recibe el índice empaquetado de cada celda
+     */
+    void forEachCellWith(int layer, int anyOf, IntConsumer action);
+
+    /**
+     * Obtiene la marca del último cambio de transitabilidad de una celda, 0 si nunca cambió
+     */
+    long getChangeStamp(int x, int y);
+
+    /**
+     * Marca el último cambio de transitabilidad de una celda con objetos
+     */
+    void setChangeStamp(int x, int y, long stamp);
+}
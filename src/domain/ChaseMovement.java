@@ -2,6 +2,9 @@ package domain;
 
 /**
  * Estrategia de movimiento de persecución: persigue al helado más cercano.
+ * Si no puede romper hielo sigue el campo de distancias compartido del tablero;
+ * si puede, sigue un camino A* guardado que pondera el costo de romper hielo.
+ * Si ningún helado es alcanzable, se acerca por distancia Manhattan.
  * 
  * @author Juan Daniel Bogotá Fuentes
  * @author Nicolás Felipe Bernal Gallo
@@ -9,6 +12,7 @@ package domain;
  */
 public class ChaseMovement implements MovementStrategy {
     private final boolean canBreakIce;
+    private final PathPlanner planner; // Solo para quienes rompen hielo
     
     /**
      * Constructor de la estrategia de movimiento de persecución.
@@ -16,16 +20,33 @@ public class ChaseMovement implements MovementStrategy {
      */
     public ChaseMovement(boolean canBreakIce) {
         this.canBreakIce = canBreakIce;
+        this.planner = canBreakIce ? new PathPlanner() : null;
     }
     
     @Override
     public Direction calculateNextDirection(Position currentPosition, Direction currentDirection, Board board) {
+        int currentCell = board.getCellIndex(currentPosition);
         Position targetPosition = board.getNearestIceCreamPosition(currentPosition);
         
         if (targetPosition == null) {
             return currentDirection; // No hay helado, mantiene dirección
         }
         
+        if (canBreakIce) {
+            // Camino A* guardado, donde atravesar hielo cuesta más ticks
+            Direction pathDirection = planner.nextDirection(board, currentCell, board.getCellIndex(targetPosition));
+            if (pathDirection != null) {
+                return pathDirection;
+            }
+        } else {
+            // Campo de distancias compartido, que rodea los muros de hielo
+            Direction fieldDirection = board.getDistanceField(false).getNextDirection(currentCell);
+            if (fieldDirection != null) {
+                return fieldDirection;
+            }
+        }
+        
+        // Sin camino hacia ningún helado: se acerca en línea recta
         Direction bestDirection = getBestDirectionTowards(currentPosition, targetPosition, board);
         
         return bestDirection != null ? bestDirection : currentDirection;
@@ -41,6 +62,7 @@ public class ChaseMovement implements MovementStrategy {
     private Direction getBestDirectionTowards(Position from, Position to, Board board) {
         int dx = to.getX() - from.getX();
         int dy = to.getY() - from.getY();
+        int fromCell = board.getCellIndex(from);
         
         Direction horizontalDir = dx > 0 ? Direction.EAST : Direction.WEST;
         Direction verticalDir = dy > 0 ? Direction.SOUTH : Direction.NORTH;
@@ -48,16 +70,16 @@ public class ChaseMovement implements MovementStrategy {
         Direction primaryDir = Math.abs(dx) > Math.abs(dy) ? horizontalDir : verticalDir;
         Direction secondaryDir = Math.abs(dx) > Math.abs(dy) ? verticalDir : horizontalDir;
         
-        if (canMoveTo(from.move(primaryDir), board)) {
+        if (canMoveTo(board.getNeighbor(fromCell, primaryDir), board)) {
             return primaryDir;
         }
         
-        if (canMoveTo(from.move(secondaryDir), board)) {
+        if (canMoveTo(board.getNeighbor(fromCell, secondaryDir), board)) {
             return secondaryDir;
         }
         
         for (Direction dir : Direction.values()) {
-            if (canMoveTo(from.move(dir), board)) {
+            if (canMoveTo(board.getNeighbor(fromCell, dir), board)) {
                 return dir;
             }
         }
@@ -65,6 +87,24 @@ public class ChaseMovement implements MovementStrategy {
         return null;
     }
     
+    /**
+     * Determina si el objeto puede moverse a una celda empaquetada
+     * @param cell Índice de la celda, -1 si está fuera del tablero
+     * @param board El tablero actual
+     * @return true si el movimiento es válido
+     */
+    private boolean canMoveTo(int cell, Board board) {
+        if (cell < 0) {
+            return false;
+        }
+        
+        if (canBreakIce && board.hasIceBlockAt(cell)) {
+            return true;
+        }
+        
+        return !board.isSolidAt(cell);
+    }
+    
     @Override
     public boolean canMoveTo(Position position, Board board) {
         if (!board.isValidPosition(position)) {
@@ -0,0 +1,376 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Almacenamiento de celdas en el heap, por bloques de hasta 64x64 celdas que
+ * solo se crean cuando reciben un objeto, así un tablero grande y casi vacío
+ * ocupa poca memoria. Cada celda guarda en línea su primer objeto; los demás,
+ * que son raros, van a un pool del bloque enlazado por índices.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+class ChunkedCellStore implements CellStore {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
+    private final int width;
+    private final int height;
+    private final int chunksWide;
+    private final Chunk[] chunks; // null mientras el bloque no tenga objetos
+    
+    /**
+     * Constructor del almacenamiento vacío
+     */
+    ChunkedCellStore(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chunksWide = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunksHigh = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Chunk[chunksWide * chunksHigh];
+    }
+    
+    /**
+     * Bloque de celdas con sus objetos, capas y marcas de cambio.
+     * Los bloques del borde se recortan al tamaño del tablero.
+     */
+    private static final class Chunk {
+        private final int columns; // Ancho del bloque
+        private final GameObject[] occupants; // Primer objeto de cada celda
+        private int[] overflow; // Primer espacio del pool de cada celda, -1 si no tiene
+        private GameObject[] pool; // Objetos que comparten celda con otro
+        private int[] next; // Siguiente espacio de la misma celda o de los libres, -1 al final
+        private int free; // Primer espacio libre del pool, -1 si no hay
+        private int poolSize; // Espacios del pool usados alguna vez
+        private final long[][] layers; // Un bit por celda del bloque en cada capa
+        private long[] changedAt; // Se crea con el primer cambio de transitabilidad
+        
+        private Chunk(int columns, int rows) {
+            this.columns = columns;
+            this.occupants = new GameObject[columns * rows];
+            this.free = -1;
+            this.layers = new long[LAYER_COUNT][(occupants.length + 63) >>> 6];
+        }
+        
+        /**
+         * Agrega un objeto a una celda en una posición
+         * @param index Posición en la celda; si es negativa o pasa del final, se agrega al final
+         */
+        private void add(int local, GameObject object, int index) {
+            GameObject first = occupants[local];
+            if (first == null) {
+                occupants[local] = object;
+                return;
+            }
+            if (overflow == null) {
+                overflow = new int[occupants.length];
+                Arrays.fill(overflow, -1);
+            }
+            if (index == 0) {
+                occupants[local] = object; // El primero pasa a encabezar el pool
+                int slot = allocate(first);
+                next[slot] = overflow[local];
+                overflow[local] = slot;
+                return;
+            }
+            
+            int slot = allocate(object);
+            if (overflow[local] < 0 || index == 1) {
+                next[slot] = overflow[local];
+                overflow[local] = slot;
+                return;
+            }
+            int previous = overflow[local];
+            for (int i = 2; (index < 0 || i < index) && next[previous] >= 0; i++) {
+                previous = next[previous];
+            }
+            next[slot] = next[previous];
+            next[previous] = slot;
+        }
+        
+        /**
+         * Quita un objeto de una celda conservando el orden de los demás
+         * @return Posición que tenía el objeto en la celda, -1 si no estaba
+         */
+        private int remove(int local, GameObject object) {
+            int head = overflow == null ? -1 : overflow[local];
+            if (occupants[local] == object) {
+                if (head >= 0) {
+                    occupants[local] = pool[head];
+                    overflow[local] = next[head];
+                    release(head);
+                } else {
+                    occupants[local] = null;
+                }
+                return 0;
+            }
+            
+            int previous = -1;
+            int index = 1;
+            for (int slot = head; slot >= 0; slot = next[slot]) {
+                if (pool[slot] == object) {
+                    if (previous < 0) {
+                        overflow[local] = next[slot];
+                    } else {
+                        next[previous] = next[slot];
+                    }
+                    release(slot);
+                    return index;
+                }
+                previous = slot;
+                index++;
+            }
+            return -1;
+        }
+        
+        /**
+         * Cuenta los objetos de una celda
+         */
+        private int count(int local) {
+            if (occupants[local] == null) {
+                return 0;
+            }
+            int count = 1;
+            for (int slot = overflow == null ? -1 : overflow[local]; slot >= 0; slot = next[slot]) {
+                count++;
+            }
+            return count;
+        }
+        
+        /**
+         * Copia en orden los objetos de una celda a un arreglo con espacio suficiente
+         */
+        private void copyTo(int local, GameObject[] target) {
+            if (occupants[local] == null) {
+                return;
+            }
+            target[0] = occupants[local];
+            int i = 1;
+            for (int slot = overflow == null ? -1 : overflow[local]; slot >= 0; slot = next[slot]) {
+                target[i++] = pool[slot];
+            }
+        }
+        
+        /**
+         * Agrega en orden los objetos de una celda a una lista
+         */
+        private void addTo(int local, List<GameObject> target) {
+            if (occupants[local] == null) {
+                return;
+            }
+            target.add(occupants[local]);
+            for (int slot = overflow == null ? -1 : overflow[local]; slot >= 0; slot = next[slot]) {
+                target.add(pool[slot]);
+            }
+        }
+        
+        /**
+         * Obtiene la unión de las capas de los objetos de una celda
+         */
+        private int layerMask(int local) {
+            if (occupants[local] == null) {
+                return 0;
+            }
+            int mask = Board.layerMaskOf(occupants[local]);
+            for (int slot = overflow == null ? -1 : overflow[local]; slot >= 0; slot = next[slot]) {
+                mask |= Board.layerMaskOf(pool[slot]);
+            }
+            return mask;
+        }
+        
+        private int allocate(GameObject object) {
+            int slot;
+            if (free >= 0) {
+                slot = free;
+                free = next[slot];
+            } else {
+                if (pool == null) {
+                    pool = new GameObject[4];
+                    next = new int[4];
+                } else if (poolSize == pool.length) {
+                    pool = Arrays.copyOf(pool, poolSize * 2);
+                    next = Arrays.copyOf(next, poolSize * 2);
+                }
+                slot = poolSize++;
+            }
+            pool[slot] = object;
+            next[slot] = -1;
+            return slot;
+        }
+        
+        private void release(int slot) {
+            pool[slot] = null;
+            next[slot] = free;
+            free = slot;
+        }
+    }
+
+    @Override
+    public void add(int x, int y, GameObject object, int index) {
+        int chunkIndex = chunkIndex(x, y);
+        Chunk chunk = chunks[chunkIndex];
+        if (chunk == null) {
+            chunk = new Chunk(chunkColumns(x), chunkRows(y));
+            chunks[chunkIndex] = chunk;
+        }
+        int local = localIndex(x, y);
+        chunk.add(local, object, index);
+        markLayers(chunk, local, Board.layerMaskOf(object));
+    }
+    
+    @Override
+    public int remove(int x, int y, GameObject object) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        int local = localIndex(x, y);
+        int index = chunk == null ? -1 : chunk.remove(local, object);
+        if (index < 0) {
+            return -1;
+        }
+        
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            chunk.layers[layer][local >>> 6] &= ~(1L << local);
+        }
+        markLayers(chunk, local, chunk.layerMask(local));
+        return index;
+    }
+    
+    @Override
+    public int count(int x, int y) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        return chunk == null ? 0 : chunk.count(localIndex(x, y));
+    }
+    
+    @Override
+    public void copyTo(int x, int y, GameObject[] target) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk != null) {
+            chunk.copyTo(localIndex(x, y), target);
+        }
+    }
+    
+    @Override
+    public void addTo(int x, int y, List<GameObject> target) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk != null) {
+            chunk.addTo(localIndex(x, y), target);
+        }
+    }
+    
+    @Override
+    public void addAllTo(List<GameObject> target) {
+        for (Chunk chunk : chunks) {
+            if (chunk == null) {
+                continue;
+            }
+            for (int local = 0; local < chunk.occupants.length; local++) {
+                chunk.addTo(local, target);
+            }
+        }
+    }
+    
+    @Override
+    public boolean hasLayer(int layer, int x, int y) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) {
+            return false;
+        }
+        int local = localIndex(x, y);
+        return (chunk.layers[layer][local >>> 6] & (1L << local)) != 0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * El orden es por bloque y, dentro de cada bloque, por filas.
+     */
+    @Override
+    public void forEachCellWith(int layer, int anyOf, IntConsumer action) {
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk == null) {
+                continue;
+            }
+            int baseX = (c % chunksWide) << CHUNK_SHIFT;
+            int baseY = (c / chunksWide) << CHUNK_SHIFT;
+            long[][] layers = chunk.layers;
+            for (int word = 0; word < layers[layer].length; word++) {
+                long others = 0;
+                for (int other = 0; other < LAYER_COUNT; other++) {
+                    if ((anyOf & (1 << other)) != 0) {
+                        others |= layers[other][word];
+                    }
+                }
+                long bits = layers[layer][word] & others;
+                while (bits != 0) {
+                    int local = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    action.accept((baseY + local / chunk.columns) * width + baseX + local % chunk.columns);
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+    
+    @Override
+    public long getChangeStamp(int x, int y) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null || chunk.changedAt == null) {
+            return 0;
+        }
+        return chunk.changedAt[localIndex(x, y)];
+    }
+    
+    @Override
+    public void setChangeStamp(int x, int y, long stamp) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) {
+            return; // La celda nunca tuvo objetos, así que tampoco cambios que marcar
+        }
+        if (chunk.changedAt == null) {
+            chunk.changedAt = new long[chunk.occupants.length];
+        }
+        chunk.changedAt[localIndex(x, y)] = stamp;
+    }
+    
+    /**
+     * Calcula el índice del bloque que contiene unas coordenadas
+     */
+    private int chunkIndex(int x, int y) {
+        return (y >> CHUNK_SHIFT) * chunksWide + (x >> CHUNK_SHIFT);
+    }
+    
+    /**
+     * Calcula el ancho del bloque que contiene una columna
+     */
+    private int chunkColumns(int x) {
+        return Math.min(CHUNK_SIZE, width - (x & ~CHUNK_MASK));
+    }
+    
+    /**
+     * Calcula la altura del bloque que contiene una fila
+     */
+    private int chunkRows(int y) {
+        return Math.min(CHUNK_SIZE, height - (y & ~CHUNK_MASK));
+    }
+    
+    /**
+     * Calcula el índice de unas coordenadas dentro de su bloque
+     */
+    private int localIndex(int x, int y) {
+        return (y & CHUNK_MASK) * chunkColumns(x) + (x & CHUNK_MASK);
+    }
+    
+    /**
+     * Enciende en una celda de un bloque los bits de las capas indicadas en la máscara
+     */
+    private static void markLayers(Chunk chunk, int local, int mask) {
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            if ((mask & (1 << layer)) != 0) {
+                chunk.layers[layer][local >>> 6] |= 1L << local;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * Fase de colisiones de un nivel.
+ * En una sola pasada cruza la capa de helados con las de enemigos, fogatas
+ * y baldosas calientes, y además detecta los intercambios de celda entre un
+ * helado y un enemigo, que no comparten celda en ningún momento.
+ * Reemplaza las revisiones que cada enemigo y peligro hacía de su celda,
+ * así el resultado no depende del orden de actualización.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class CollisionPhase implements GameEventListener {
+    private final Board board;
+    private IceCream[] iceCreamMovers; // Movimientos desde la última resolución
+    private long[] iceCreamMoves; // Celda origen en los 32 bits altos, destino en los bajos
+    private int iceCreamMoveCount;
+    private Enemy[] enemyMovers;
+    private long[] enemyMoves;
+    private int enemyMoveCount;
+
+    /**
+     * Constructor de la fase. Se suscribe a los movimientos del tablero.
+     * @param board Tablero donde se resuelven las colisiones
+     */
+    public CollisionPhase(Board board) {
+        this.board = board;
+        this.iceCreamMovers = new IceCream[4];
+        this.iceCreamMoves = new long[4];
+        this.enemyMovers = new Enemy[8];
+        this.enemyMoves = new long[8];
+        board.addListener(this);
+    }
+
+    @Override
+    public void objectMoved(GameObject object, Position from, Position to) {
+        long move = ((long) board.getCellIndex(from) << 32) | board.getCellIndex(to);
+        if (object instanceof IceCream iceCream) {
+            if (iceCreamMoveCount == iceCreamMoves.length) {
+                iceCreamMovers = Arrays.copyOf(iceCreamMovers, iceCreamMoveCount * 2);
+                iceCreamMoves = Arrays.copyOf(iceCreamMoves, iceCreamMoveCount * 2);
+            }
+            iceCreamMovers[iceCreamMoveCount] = iceCream;
+            iceCreamMoves[iceCreamMoveCount++] = move;
+        } else if (object instanceof Enemy enemy) {
+            if (enemyMoveCount == enemyMoves.length) {
+                enemyMovers = Arrays.copyOf(enemyMovers, enemyMoveCount * 2);
+                enemyMoves = Arrays.copyOf(enemyMoves, enemyMoveCount * 2);
+            }
+            enemyMovers[enemyMoveCount] = enemy;
+            enemyMoves[enemyMoveCount++] = move;
+        }
+    }
+
+    /**
+     * Resuelve todas las colisiones pendientes: primero las celdas compartidas,
+     * en orden de celda, y luego los intercambios desde la última resolución
+     */
+    public void resolve() {
+        resolveContacts();
+
+        for (int i = 0; i < iceCreamMoveCount; i++) {
+            IceCream iceCream = iceCreamMovers[i];
+            long swapped = (iceCreamMoves[i] << 32) | (iceCreamMoves[i] >>> 32);
+            for (int j = 0; j < enemyMoveCount && iceCream.isAlive(); j++) {
+                if (enemyMoves[j] == swapped && enemyMovers[j].isDangerous()) {
+                    enemyMovers[j].onContact(iceCream);
+                }
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Resuelve solo las celdas compartidas, por ejemplo justo después de que un
+     * jugador mueve su helado. Los movimientos siguen registrados para buscar
+     * intercambios en la próxima resolución completa.
+     */
+    public void resolveContacts() {
+        board.forEachCollisionCell(this::resolveCell);
+    }
+
+    /**
+     * Olvida los movimientos registrados, por ejemplo tras retroceder el nivel
+     */
+    public void clear() {
+        Arrays.fill(iceCreamMovers, 0, iceCreamMoveCount, null);
+        Arrays.fill(enemyMovers, 0, enemyMoveCount, null);
+        iceCreamMoveCount = 0;
+        enemyMoveCount = 0;
+    }
+
+    /**
+     * Aplica el contacto de cada peligro de la celda con cada helado vivo de ella
+     */
+    private void resolveCell(int cell) {
+        Position position = board.getPosition(cell);
+        board.forEachObjectAt(position, object -> {
+            if (object instanceof Dangerous dangerous && dangerous.isDangerous()) {
+                board.forEachObjectAt(position, other -> {
+                    if (other instanceof IceCream iceCream && iceCream.isAlive()) {
+                        dangerous.onContact(iceCream);
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,382 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * Campo de distancias compartido hacia los helados vivos.
+ * Se calcula con un BFS de múltiples fuentes sobre las celdas transitables
+ * y lo consultan todos los enemigos perseguidores en O(1).
+ * Cuando el tablero crea o rompe hielo, o un helado se mueve, el campo se
+ * repara solo en la región afectada en lugar de recalcularse completo.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class DistanceField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Board board;
+    private final boolean breaksIce;
+    private final int[] distances;
+    private final boolean[] passable; // Transitabilidad con la que se calculó el campo
+    private final int[] sourceCount; // Helados vivos por celda
+    private int[] sources; // Celdas fuente del último cálculo
+    private int sourceSize;
+    private int[] nextSources;
+    private final boolean[] dirty;
+    private final int[] dirtyCells;
+    private int dirtySize;
+    private final int[] queue;
+    private int[] work;
+    private final int[] affected;
+    private final long[] seeds;
+    private boolean initialized;
+    private long computedTick;
+    private long computedVersion;
+
+    /**
+     * Constructor del campo de distancias.
+     * @param board Tablero sobre el que se calcula el campo.
+     * @param breaksIce Indica si los bloques de hielo se consideran transitables.
+     */
+    DistanceField(Board board, boolean breaksIce) {
+        int cells = board.getWidth() * board.getHeight();
+        this.board = board;
+        this.breaksIce = breaksIce;
+        this.distances = new int[cells];
+        this.passable = new boolean[cells];
+        this.sourceCount = new int[cells];
+        this.sources = new int[4];
+        this.nextSources = new int[4];
+        this.dirty = new boolean[cells];
+        this.dirtyCells = new int[cells];
+        this.queue = new int[cells];
+        this.work = new int[64];
+        this.affected = new int[cells];
+        this.seeds = new long[cells];
+        this.initialized = false;
+        this.computedTick = -1;
+        this.computedVersion = -1;
+    }
+
+    /**
+     * Registra que la transitabilidad de una celda pudo cambiar.
+     * Lo invoca el tablero al agregar o remover objetos sólidos.
+     */
+    void cellChanged(int cell) {
+        if (initialized && !dirty[cell]) {
+            dirty[cell] = true;
+            dirtyCells[dirtySize++] = cell;
+        }
+    }
+
+    /**
+     * Sincroniza el campo si el tablero cambió de tick o de estructura
+     */
+    void refresh() {
+        if (computedTick == board.getTick() && computedVersion == board.getVersion()) {
+            return;
+        }
+
+        if (!initialized || dirtySize > distances.length / 4) {
+            compute();
+        } else {
+            repairCells();
+            repairSources();
+        }
+        computedTick = board.getTick();
+        computedVersion = board.getVersion();
+    }
+
+    /**
+     * Obtiene la distancia en pasos desde una celda al helado vivo más cercano
+     * @param cell Índice de la celda
+     * @return La distancia o UNREACHABLE si no hay camino
+     */
+    public int getDistance(int cell) {
+        refresh();
+        return cell < 0 ? UNREACHABLE : distances[cell];
+    }
+
+    /**
+     * Obtiene la dirección que más acerca a un helado desde una celda
+     * @param cell Índice de la celda actual
+     * @return La dirección a seguir o null si ningún helado es alcanzable
+     */
+    public Direction getNextDirection(int cell) {
+        refresh();
+        if (cell < 0) {
+            return null;
+        }
+
+        Direction best = null;
+        int bestDistance = UNREACHABLE;
+        for (Direction direction : DIRECTIONS) {
+            int neighbor = board.getNeighbor(cell, direction);
+            if (neighbor >= 0 && distances[neighbor] < bestDistance) {
+                bestDistance = distances[neighbor];
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * BFS completo de múltiples fuentes desde todos los helados vivos
+     */
+    private void compute() {
+        for (int cell = 0; cell < distances.length; cell++) {
+            passable[cell] = isPassable(cell);
+            dirty[cell] = false;
+        }
+        dirtySize = 0;
+        Arrays.fill(sourceCount, 0);
+        Arrays.fill(distances, UNREACHABLE);
+
+        sourceSize = collectSources();
+        int[] swap = sources;
+        sources = nextSources;
+        nextSources = swap;
+
+        int tail = 0;
+        for (int i = 0; i < sourceSize; i++) {
+            int cell = sources[i];
+            sourceCount[cell]++;
+            if (distances[cell] != 0) {
+                distances[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        propagate(tail);
+        initialized = true;
+    }
+
+    /**
+     * Aplica los cambios de transitabilidad pendientes, uno por celda
+     */
+    private void repairCells() {
+        for (int i = 0; i < dirtySize; i++) {
+            int cell = dirtyCells[i];
+            dirty[cell] = false;
+
+            boolean now = isPassable(cell);
+            if (now == passable[cell]) {
+                continue;
+            }
+            passable[cell] = now;
+            if (now) {
+                lower(cell);
+            } else {
+                raise(cell);
+            }
+        }
+        dirtySize = 0;
+    }
+
+    /**
+     * Compara los helados vivos con las fuentes anteriores y repara las diferencias
+     */
+    private void repairSources() {
+        int nextSize = collectSources();
+        for (int i = 0; i < sourceSize; i++) {
+            sourceCount[sources[i]]--;
+        }
+        for (int i = 0; i < nextSize; i++) {
+            sourceCount[nextSources[i]]++;
+        }
+
+        // Primero las fuentes nuevas, así las celdas cercanas conservan soporte
+        for (int i = 0; i < nextSize; i++) {
+            lower(nextSources[i]);
+        }
+        for (int i = 0; i < sourceSize; i++) {
+            int cell = sources[i];
+            if (sourceCount[cell] == 0 && distances[cell] == 0) {
+                raise(cell);
+            }
+        }
+
+        int[] swap = sources;
+        sources = nextSources;
+        nextSources = swap;
+        sourceSize = nextSize;
+    }
+
+    /**
+     * Reúne en nextSources las celdas de los helados vivos
+     * @return Cantidad de fuentes
+     */
+    private int collectSources() {
+        int size = 0;
+        for (IceCream iceCream : board.getIceCreams()) {
+            int cell = board.getCellIndex(iceCream.getPosition());
+            if (iceCream.isAlive() && cell >= 0) {
+                if (size == nextSources.length) {
+                    nextSources = Arrays.copyOf(nextSources, size * 2);
+                }
+                nextSources[size++] = cell;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * La distancia de una celda pudo bajar: se propaga la mejora con un BFS local
+     */
+    private void lower(int cell) {
+        int candidate;
+        if (sourceCount[cell] > 0) {
+            candidate = 0;
+        } else if (passable[cell]) {
+            candidate = bestNeighborDistance(cell);
+        } else {
+            return;
+        }
+
+        if (candidate >= distances[cell]) {
+            return;
+        }
+        distances[cell] = candidate;
+        queue[0] = cell;
+        propagate(1);
+    }
+
+    /**
+     * La distancia de una celda pudo subir: se invalidan las celdas que dependían
+     * de ella y se vuelven a calcular desde el borde de la región afectada
+     */
+    private void raise(int cell) {
+        int affectedSize = 0;
+        int workSize = 0;
+        work[workSize++] = cell;
+
+        while (workSize > 0) {
+            int current = work[--workSize];
+            int distance = distances[current];
+            if (distance == UNREACHABLE || (distance == 0 && sourceCount[current] > 0)) {
+                continue;
+            }
+            if (isWalkable(current) && hasSupport(current)) {
+                continue;
+            }
+
+            distances[current] = UNREACHABLE;
+            affected[affectedSize++] = current;
+            for (Direction direction : DIRECTIONS) {
+                int neighbor = board.getNeighbor(current, direction);
+                if (neighbor >= 0 && distances[neighbor] == distance + 1) {
+                    if (workSize == work.length) {
+                        work = Arrays.copyOf(work, workSize * 2);
+                    }
+                    work[workSize++] = neighbor;
+                }
+            }
+        }
+
+        // Semillas del borde, ordenadas por distancia candidata
+        int seedSize = 0;
+        for (int i = 0; i < affectedSize; i++) {
+            int current = affected[i];
+            if (isWalkable(current)) {
+                int candidate = bestNeighborDistance(current);
+                if (candidate != UNREACHABLE) {
+                    seeds[seedSize++] = ((long) candidate << 32) | current;
+                }
+            }
+        }
+        Arrays.sort(seeds, 0, seedSize);
+
+        // Dijkstra de pesos unitarios mezclando semillas ordenadas y cola FIFO
+        int head = 0;
+        int tail = 0;
+        int nextSeed = 0;
+        while (nextSeed < seedSize || head < tail) {
+            boolean takeSeed = head == tail
+                || nextSeed < seedSize && (int) (seeds[nextSeed] >>> 32) <= distances[queue[head]];
+            if (takeSeed) {
+                int current = (int) seeds[nextSeed];
+                int candidate = (int) (seeds[nextSeed++] >>> 32);
+                if (candidate < distances[current]) {
+                    distances[current] = candidate;
+                    queue[tail++] = current;
+                }
+                continue;
+            }
+
+            int current = queue[head++];
+            int next = distances[current] + 1;
+            for (Direction direction : DIRECTIONS) {
+                int neighbor = board.getNeighbor(current, direction);
+                if (neighbor >= 0 && passable[neighbor] && distances[neighbor] > next) {
+                    distances[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Propaga distancias con un BFS a partir de las celdas ya encoladas
+     */
+    private void propagate(int tail) {
+        int head = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distances[cell] + 1;
+            for (Direction direction : DIRECTIONS) {
+                int neighbor = board.getNeighbor(cell, direction);
+                if (neighbor >= 0 && passable[neighbor] && distances[neighbor] > next) {
+                    distances[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si la celda conserva un vecino que justifique su distancia actual
+     */
+    private boolean hasSupport(int cell) {
+        int expected = distances[cell] - 1;
+        for (Direction direction : DIRECTIONS) {
+            int neighbor = board.getNeighbor(cell, direction);
+            if (neighbor >= 0 && distances[neighbor] == expected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene la menor distancia de los vecinos más uno
+     */
+    private int bestNeighborDistance(int cell) {
+        int best = UNREACHABLE;
+        for (Direction direction : DIRECTIONS) {
+            int neighbor = board.getNeighbor(cell, direction);
+            if (neighbor >= 0 && distances[neighbor] != UNREACHABLE && distances[neighbor] + 1 < best) {
+                best = distances[neighbor] + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Indica si la celda puede tener distancia: transitable o con un helado encima
+     */
+    private boolean isWalkable(int cell) {
+        return passable[cell] || sourceCount[cell] > 0;
+    }
+
+    /**
+     * Indica si un enemigo con este modo de movimiento puede ocupar la celda
+     */
+    private boolean isPassable(int cell) {
+        if (breaksIce && board.hasIceBlockAt(cell)) {
+            return true;
+        }
+        return !board.isSolidAt(cell);
+    }
+}
@@ -26,27 +26,41 @@ public abstract class Enemy extends GameObject implements Movable, Dangerous {
     
     @Override
     public void update(Board board) {
-
-        Direction nextDirection = movementStrategy.calculateNextDirection(
-            position, facingDirection, board
-        );
-        
-        move(nextDirection, board);
-        
-        checkCollisions(board);
+        move(decideDirection(board), board);
+        // El contacto con helados se resuelve en la fase de colisiones del nivel
+    }
+    
+    /**
+     * Calcula la dirección en la que quiere moverse el enemigo.
+     * Solo lee el tablero, así varios enemigos pueden decidir en paralelo.
+     */
+    public Direction decideDirection(Board board) {
+        return movementStrategy.calculateNextDirection(position, facingDirection, board);
+    }
+    
+    /**
+     * Obtiene la celda a la que llegaría el enemigo moviéndose en una dirección
+     * @return El índice de la celda o -1 si no puede moverse
+     */
+    public int getTargetCell(Direction direction, Board board) {
+        int target = board.getNeighbor(board.getCellIndex(position), direction);
+        if (target < 0 || !movementStrategy.canMoveTo(board.getPosition(target), board)) {
+            return -1;
+        }
+        return target;
     }
     
     @Override
     public boolean move(Direction direction, Board board) {
-        setFacingDirection(direction);
-        Position newPosition = position.move(direction);
+        int target = getTargetCell(direction, board);
         
-        if (movementStrategy.canMoveTo(newPosition, board)) {
-            board.moveObject(this, newPosition);
-            return true;
+        board.beginMake(); // El giro y el paso se deshacen juntos
+        board.turnObject(this, direction);
+        if (target >= 0) {
+            board.moveObject(this, board.getPosition(target));
         }
-        
-        return false;
+        board.endMake();
+        return target >= 0;
     }
     
     @Override
@@ -69,17 +83,9 @@ public abstract class Enemy extends GameObject implements Movable, Dangerous {
         iceCream.eliminate();
     }
     
-    /**
-     * Verifica si hay colisiones con helados en la posición actual
-     */
-    protected void checkCollisions(Board board) {
-        for (GameObject obj : board.getObjectsAt(position)) {
-            if (obj instanceof IceCream iceCream) {
-                if (iceCream.isAlive()) {
-                    onContact(iceCream);
-                }
-            }
-        }
+    @Override
+    public boolean isActive() {
+        return true; // Los enemigos se mueven en cada tick
     }
     
     @Override
@@ -0,0 +1,247 @@
+package domain;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Jugador de máquina determinista que elige su acción con expectimax.
+ * El helado maximiza; los giros al azar de los enemigos con LinearMovement
+ * son nodos de azar con direcciones igual de probables y los enemigos con
+ * ChaseMovement se mueven sin azar. Profundiza de a un paso mientras quede
+ * tiempo, probando primero la mejor acción de la iteración anterior, y
+ * guarda los valores ya calculados en una tabla de transposición indexada
+ * por el hash del estado. Al vencer el tiempo retorna la mejor acción de la
+ * última iteración completa.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class ExpectimaxPlayer implements MachinePlayer {
+    public static final long DEFAULT_TIME_BUDGET = 250; // Milisegundos, deja margen dentro del tick de 400 ms
+    private static final int MAX_DEPTH = 32; // Pasos máximos; también escala el valor de perder
+    private static final int TABLE_BITS = 16;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    private static final int NODES_PER_CLOCK_CHECK = 64;
+
+    private final long timeBudget;
+    private int depthLimit;
+    // Tabla de transposición: hash, generación, pasos restantes, valor y mejor acción
+    private final long[] tableKeys;
+    private final int[] tableGenerations;
+    private final byte[] tableDepths;
+    private final double[] tableValues;
+    private final byte[] tableActions;
+    private int generation; // Cambia en cada decisión, los valores dependen del puntaje inicial
+
+    private SearchModel model;
+    private SearchModel.Scratch scratch;
+    private long deadline;
+    private int nodes;
+    private boolean timedOut;
+    private int completedDepth;
+
+    /**
+     * Constructor del jugador con el tiempo por defecto
+     */
+    public ExpectimaxPlayer() {
+        this(DEFAULT_TIME_BUDGET);
+    }
+
+    /**
+     * Constructor del jugador con un tiempo específico
+     * @param timeBudget Milisegundos para decidir cada acción
+     */
+    public ExpectimaxPlayer(long timeBudget) {
+        this.timeBudget = timeBudget;
+        this.depthLimit = MAX_DEPTH;
+        this.tableKeys = new long[1 << TABLE_BITS];
+        this.tableGenerations = new int[1 << TABLE_BITS];
+        this.tableDepths = new byte[1 << TABLE_BITS];
+        this.tableValues = new double[1 << TABLE_BITS];
+        this.tableActions = new byte[1 << TABLE_BITS];
+    }
+
+    /**
+     * Limita la profundidad de la búsqueda. Con un límite alcanzable dentro
+     * del tiempo las decisiones no dependen de la velocidad del equipo.
+     */
+    public void setDepthLimit(int depthLimit) {
+        this.depthLimit = Math.max(1, Math.min(MAX_DEPTH, depthLimit));
+    }
+
+    /**
+     * Obtiene la profundidad de la última iteración completa de la última decisión
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    @Override
+    public GameAction chooseAction(BadDopoCream game, IceCream iceCream) {
+        return prepareAction(game, iceCream).get();
+    }
+
+    /**
+     * Exporta el nivel en el hilo que llama; la búsqueda, con su tiempo
+     * completo, ocurre al obtener la decisión. Las decisiones de un mismo
+     * jugador no deben calcularse a la vez.
+     */
+    @Override
+    public Supplier<GameAction> prepareAction(BadDopoCream game, IceCream iceCream) {
+        if (!iceCream.isAlive() || game.getCurrentLevel() == null) {
+            return () -> GameAction.NONE;
+        }
+        SearchModel prepared = new SearchModel(game, iceCream);
+        return () -> search(prepared);
+    }
+
+    /**
+     * Profundiza la búsqueda mientras quede tiempo
+     */
+    private GameAction search(SearchModel prepared) {
+        deadline = System.nanoTime() + timeBudget * 1_000_000;
+        model = prepared;
+        scratch = new SearchModel.Scratch();
+        generation++;
+        nodes = 0;
+        timedOut = false;
+        completedDepth = 0;
+
+        int actionCount = SearchModel.ACTIONS.length;
+        int[] order = new int[actionCount];
+        for (int a = 0; a < actionCount; a++) {
+            order[a] = a;
+        }
+        double[] values = new double[actionCount];
+        int best = 0;
+
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            int iterationBest = -1;
+            for (int i = 0; i < actionCount; i++) {
+                int action = order[i];
+                values[action] = expectEnemies(model.getRoot().apply(model.getIceCreamId(),
+                        SearchModel.ACTIONS[action]), 0, depth - 1);
+                if (timedOut) {
+                    break;
+                }
+                if (iterationBest < 0 || values[action] > values[iterationBest]) {
+                    iterationBest = action;
+                }
+            }
+            if (timedOut) {
+                // La iteración a medias sirve si alcanzó a evaluar la mejor anterior, que va primero
+                if (iterationBest >= 0) {
+                    best = iterationBest;
+                }
+                break;
+            }
+            best = iterationBest;
+            completedDepth = depth;
+            sortByValue(order, values);
+        }
+
+        model = null;
+        scratch = null;
+        return SearchModel.ACTIONS[best];
+    }
+
+    /**
+     * Valor de un estado en el que le toca al helado
+     * @param remaining Pasos que faltan por explorar
+     */
+    private double maximize(BoardState state, int remaining) {
+        if (model.isLost(state) || remaining == 0) {
+            return leafValue(state, remaining);
+        }
+        int slot = (int) (state.getHash() ^ (state.getHash() >>> 32) ^ remaining * 0x9E3779B9) & TABLE_MASK;
+        boolean known = tableKeys[slot] == state.getHash() && tableGenerations[slot] == generation;
+        if (known && tableDepths[slot] == remaining) {
+            return tableValues[slot];
+        }
+        if (++nodes % NODES_PER_CLOCK_CHECK == 0 && System.nanoTime() > deadline) {
+            timedOut = true;
+        }
+        if (timedOut) {
+            return 0;
+        }
+
+        // Primero la mejor acción conocida para este estado
+        int first = known ? tableActions[slot] : 0;
+        int best = first;
+        double bestValue = expectEnemies(state.apply(model.getIceCreamId(), SearchModel.ACTIONS[first]), 0,
+                remaining - 1);
+        for (int action = 0; action < SearchModel.ACTIONS.length && !timedOut; action++) {
+            if (action == first) {
+                continue;
+            }
+            double value = expectEnemies(state.apply(model.getIceCreamId(), SearchModel.ACTIONS[action]), 0,
+                    remaining - 1);
+            if (value > bestValue) {
+                bestValue = value;
+                best = action;
+            }
+        }
+        if (timedOut) {
+            return 0;
+        }
+
+        tableKeys[slot] = state.getHash();
+        tableGenerations[slot] = generation;
+        tableDepths[slot] = (byte) remaining;
+        tableValues[slot] = bestValue;
+        tableActions[slot] = (byte) best;
+        return bestValue;
+    }
+
+    /**
+     * Valor esperado tras mover a los enemigos desde uno dado, en orden
+     * @param enemy Primer enemigo que falta por mover
+     */
+    private double expectEnemies(BoardState state, int enemy, int remaining) {
+        if (model.isLost(state)) {
+            return leafValue(state, remaining);
+        }
+        if (enemy == model.getEnemyCount()) {
+            return maximize(state, remaining);
+        }
+        Direction[] options = scratch.getOptions();
+        int count = model.getOptions(state, enemy, scratch);
+        if (count == 0) {
+            return expectEnemies(state, enemy + 1, remaining);
+        }
+        if (count == 1) {
+            return expectEnemies(model.moveEnemy(state, enemy, options[0]), enemy + 1, remaining);
+        }
+
+        // Nodo de azar: las opciones se copian porque la recursión reutiliza el arreglo
+        Direction[] outcomes = Arrays.copyOf(options, count);
+        double total = 0;
+        for (Direction direction : outcomes) {
+            total += expectEnemies(model.moveEnemy(state, enemy, direction), enemy + 1, remaining);
+        }
+        return total / count;
+    }
+
+    /**
+     * Valor de una hoja; perder vale menos cuantos más pasos faltaban
+     */
+    private double leafValue(BoardState state, int remaining) {
+        return model.evaluate(state, 1 - (double) remaining / MAX_DEPTH);
+    }
+
+    /**
+     * Ordena las acciones de mayor a menor valor, estable ante empates
+     */
+    private static void sortByValue(int[] order, double[] values) {
+        for (int i = 1; i < order.length; i++) {
+            int action = order[i];
+            int j = i - 1;
+            while (j >= 0 && values[order[j]] < values[action]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = action;
+        }
+    }
+}
@@ -47,6 +47,13 @@ public abstract class Fruit extends GameObject implements Collectible {
         return collected;
     }
     
+    /**
+     * Restaura si la fruta fue recolectada desde un estado guardado
+     */
+    void restoreCollected(boolean collected) {
+        this.collected = collected;
+    }
+    
     @Override
     public boolean isSolid() {
         return false;
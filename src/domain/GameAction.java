@@ -0,0 +1,54 @@
+package domain;
+
+/**
+ * Acciones que un jugador puede realizar con su helado en un tick.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public enum GameAction {
+    NONE(null),
+    MOVE_NORTH(Direction.NORTH),
+    MOVE_SOUTH(Direction.SOUTH),
+    MOVE_EAST(Direction.EAST),
+    MOVE_WEST(Direction.WEST),
+    CREATE_ICE(null),
+    BREAK_ICE(null);
+    
+    private final Direction direction;
+    
+    /**
+     * Constructor de la acción
+     * @param direction Dirección del movimiento, null si la acción no mueve al helado
+     */
+    GameAction(Direction direction) {
+        this.direction = direction;
+    }
+    
+    /**
+     * Obtiene la dirección del movimiento, null si la acción no es un movimiento
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    /**
+     * Indica si la acción mueve al helado
+     */
+    public boolean isMove() {
+        return direction != null;
+    }
+    
+    /**
+     * Obtiene la acción de movimiento correspondiente a una dirección
+     */
+    public static GameAction moveTowards(Direction direction) {
+        return switch (direction) {
+            case NORTH -> MOVE_NORTH;
+            case SOUTH -> MOVE_SOUTH;
+            case EAST -> MOVE_EAST;
+            case WEST -> MOVE_WEST;
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package domain;
+
+import java.util.List;
+
+/**
+ * Interfaz para recibir los cambios del tablero y del nivel a medida que ocurren.
+ * Todos los métodos tienen implementación vacía, así cada oyente solo
+ * sobrescribe los eventos que le interesan.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public interface GameEventListener {
+
+    /**
+     * Se agregó un objeto al tablero
+     */
+    default void objectAdded(GameObject object) {
+    }
+
+    /**
+     * Se removió un objeto del tablero
+     * @param object El objeto removido, que conserva su última posición
+     */
+    default void objectRemoved(GameObject object) {
+    }
+
+    /**
+     * Un objeto cambió de celda
+     * @param from Posición anterior
+     * @param to Posición nueva
+     */
+    default void objectMoved(GameObject object, Position from, Position to) {
+    }
+
+    /**
+     * Un helado creó un bloque de hielo
+     */
+    default void iceCreated(IceBlock block) {
+    }
+
+    /**
+     * Un helado rompió un bloque de hielo
+     */
+    default void iceBroken(IceBlock block) {
+    }
+
+    /**
+     * Un helado recolectó una fruta
+     */
+    default void fruitCollected(Fruit fruit, IceCream collector) {
+    }
+
+    /**
+     * Un helado ganó puntos
+     * @param points Puntos sumados
+     */
+    default void scoreChanged(IceCream iceCream, int points) {
+    }
+
+    /**
+     * Un helado fue eliminado
+     */
+    default void iceCreamEliminated(IceCream iceCream) {
+    }
+
+    /**
+     * Se activó una oleada de frutas
+     * @param waveIndex Índice de la oleada activada
+     * @param fruits Frutas de la oleada
+     */
+    default void waveActivated(int waveIndex, List<Fruit> fruits) {
+    }
+}
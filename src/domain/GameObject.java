@@ -10,6 +10,7 @@ package domain;
  */
 public abstract class GameObject {
     protected Position position;
+    long zobristKey; // Llave con la que está sumado al hash de su tablero, 0 si no está en uno
     
     /**
      * Constructor de la clase GameObject.
@@ -40,6 +41,14 @@ public abstract class GameObject {
      */
     public abstract void update(Board board);
     
+    /**
+     * Indica si el objeto necesita actualizarse en cada tick.
+     * Los objetos inactivos duermen y el planificador no los actualiza.
+     */
+    public boolean isActive() {
+        return false;
+    }
+    
     /**
      * Verifica si este objeto bloquea el movimiento de otros
      */
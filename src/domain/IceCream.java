@@ -13,6 +13,7 @@ public abstract class IceCream extends GameObject implements Movable {
     protected boolean alive;
     protected int score;
     protected String color;
+    private Board board; // Tablero al que se avisan los puntos y la eliminación
     
     /**
      * Constructor de la clase IceCream.
@@ -29,15 +30,16 @@ public abstract class IceCream extends GameObject implements Movable {
     
     @Override
     public boolean move(Direction direction, Board board) {
-        setFacingDirection(direction);
-        Position newPosition = position.move(direction);
+        int target = board.getNeighbor(board.getCellIndex(position), direction);
+        boolean free = target >= 0 && !board.isSolidAt(target);
         
-        if (board.isValidPosition(newPosition) && !board.isSolidAt(newPosition)) {
-            board.moveObject(this, newPosition);
-            return true;
+        board.beginMake(); // El giro y el paso se deshacen juntos
+        board.turnObject(this, direction);
+        if (free) {
+            board.moveObject(this, board.getPosition(target));
         }
-        
-        return false;
+        board.endMake();
+        return free;
     }
     
     @Override
@@ -55,6 +57,9 @@ public abstract class IceCream extends GameObject implements Movable {
      */
     public void addScore(int points) {
         this.score += points;
+        if (board != null) {
+            board.fireScoreChanged(this, points);
+        }
     }
     
     /**
@@ -75,7 +80,28 @@ public abstract class IceCream extends GameObject implements Movable {
      * Elimina el helado del juego
      */
     public void eliminate() {
+        if (!alive) {
+            return;
+        }
         this.alive = false;
+        if (board != null) {
+            board.fireIceCreamEliminated(this);
+        }
+    }
+    
+    /**
+     * Asocia el helado al tablero que lo contiene
+     */
+    void setBoard(Board board) {
+        this.board = board;
+    }
+    
+    /**
+     * Restaura la vida y el puntaje desde un estado guardado
+     */
+    void restoreState(boolean alive, int score) {
+        this.alive = alive;
+        this.score = score;
     }
     
     /**
@@ -0,0 +1,231 @@
+package domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Registro compacto de las entradas de una partida.
+ * Guarda el nivel, la semilla y, por cada entrada, el tick lógico en que
+ * ocurrió, el helado que la hizo y la acción. Con esto la partida se puede
+ * volver a simular exactamente, y ocupa unos pocos KB.
+ *
+ * Formato binario: versión (1 byte), nivel (varint), semilla (8 bytes),
+ * tick final (varint), cantidad de entradas (varint) y cada entrada como
+ * diferencia de tick (varint) más un byte con el helado y el código de acción.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class InputLog {
+    public static final int PAUSE = 14; // Códigos que no son acciones de helado
+    public static final int RESUME = 15;
+    public static final int MAX_PLAYERS = 16; // El índice del helado ocupa 4 bits
+    private static final int FORMAT_VERSION = 1;
+
+    private final int levelIndex;
+    private final long seed;
+    private long endTick;
+    private long[] ticks;
+    private byte[] inputs; // Helado en los 4 bits altos, código en los 4 bajos
+    private int size;
+
+    /**
+     * Constructor de un registro vacío
+     * @param levelIndex Índice del nivel jugado
+     * @param seed Semilla de la partida
+     */
+    public InputLog(int levelIndex, long seed) {
+        this.levelIndex = levelIndex;
+        this.seed = seed;
+        this.ticks = new long[64];
+        this.inputs = new byte[64];
+    }
+
+    /**
+     * Registra una acción de un helado
+     * @param tick Tick lógico en que ocurrió
+     * @param player Índice del helado en el tablero
+     * @param action Acción realizada
+     * @throws IllegalArgumentException Si el índice no cabe en el formato
+     */
+    public void recordAction(long tick, int player, GameAction action) {
+        if (player < 0 || player >= MAX_PLAYERS) {
+            throw new IllegalArgumentException("Índice de helado fuera de rango: " + player);
+        }
+        record(tick, player, action.ordinal());
+    }
+
+    /**
+     * Registra una pausa o reanudación
+     * @param tick Tick lógico en que ocurrió
+     * @param code PAUSE o RESUME
+     */
+    public void recordControl(long tick, int code) {
+        record(tick, 0, code);
+    }
+
+    /**
+     * Actualiza el último tick simulado de la partida
+     */
+    public void markTick(long tick) {
+        endTick = Math.max(endTick, tick);
+    }
+
+    private void record(long tick, int player, int code) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            inputs = Arrays.copyOf(inputs, size * 2);
+        }
+        ticks[size] = tick;
+        inputs[size] = (byte) ((player << 4) | code);
+        size++;
+        markTick(tick);
+    }
+
+    /**
+     * Obtiene el índice del nivel jugado
+     */
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    /**
+     * Obtiene la semilla de la partida
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Obtiene el último tick simulado de la partida
+     */
+    public long getEndTick() {
+        return endTick;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas registradas
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene el tick de una entrada
+     */
+    public long getTick(int index) {
+        return ticks[index];
+    }
+
+    /**
+     * Obtiene el índice del helado de una entrada
+     */
+    public int getPlayer(int index) {
+        return (inputs[index] >> 4) & 0x0F;
+    }
+
+    /**
+     * Obtiene el código de una entrada: el ordinal de la acción, PAUSE o RESUME
+     */
+    public int getCode(int index) {
+        return inputs[index] & 0x0F;
+    }
+
+    /**
+     * Escribe el registro en formato binario
+     * @throws BadDopoCreamException Si no se pudo escribir
+     */
+    public void writeTo(OutputStream output) throws BadDopoCreamException {
+        try {
+            DataOutputStream data = new DataOutputStream(output);
+            data.writeByte(FORMAT_VERSION);
+            writeVarLong(data, levelIndex);
+            data.writeLong(seed);
+            writeVarLong(data, endTick);
+            writeVarLong(data, size);
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                writeVarLong(data, ticks[i] - previous);
+                data.writeByte(inputs[i]);
+                previous = ticks[i];
+            }
+            data.flush();
+        } catch (IOException e) {
+            throw new BadDopoCreamException(BadDopoCreamException.REPLAY_ERROR);
+        }
+    }
+
+    /**
+     * Lee un registro en formato binario
+     * @throws BadDopoCreamException Si los datos no son un registro válido
+     */
+    public static InputLog readFrom(InputStream input) throws BadDopoCreamException {
+        try {
+            DataInputStream data = new DataInputStream(input);
+            if (data.readByte() != FORMAT_VERSION) {
+                throw new BadDopoCreamException(BadDopoCreamException.REPLAY_ERROR);
+            }
+            InputLog log = new InputLog((int) readVarLong(data), data.readLong());
+            long endTick = readVarLong(data);
+            long count = readVarLong(data);
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                tick += readVarLong(data);
+                byte packed = data.readByte();
+                log.record(tick, (packed >> 4) & 0x0F, packed & 0x0F);
+            }
+            log.markTick(endTick);
+            return log;
+        } catch (IOException e) {
+            throw new BadDopoCreamException(BadDopoCreamException.REPLAY_ERROR);
+        }
+    }
+
+    /**
+     * Obtiene el registro como arreglo de bytes
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            writeTo(output);
+        } catch (BadDopoCreamException e) {
+            throw new IllegalStateException(e); // Un arreglo en memoria no falla al escribir
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Crea un registro a partir de un arreglo de bytes
+     * @throws BadDopoCreamException Si los datos no son un registro válido
+     */
+    public static InputLog fromBytes(byte[] bytes) throws BadDopoCreamException {
+        return readFrom(new ByteArrayInputStream(bytes));
+    }
+
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = data.readByte();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+}
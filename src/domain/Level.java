@@ -19,8 +19,12 @@ public class Level {
     private boolean completed;
     private List<List<Fruit>> fruitWaves; // Todas las oleadas
     private int currentWaveIndex; // Índice de la oleada actual
-    private List<Fruit> activeFruits; // Frutas activas en el tablero
     private int totalFruitsToCollect;
+    private final LevelStatistics statistics; // Se actualiza con los eventos del tablero
+    private final TickScheduler scheduler; // Actualiza solo los objetos activos
+    private final CollisionPhase collisions; // Contactos entre helados y peligros
+    private long tick; // Actualizaciones realizadas desde el inicio
+    private final LevelHistory history; // Estados recientes para retroceder
     
     /**
      * Constructor del nivel con parámetros especí­ficos.
@@ -30,15 +34,33 @@ public class Level {
      * @param timeLimit Lí­mite de tiempo en segundos.
      */
     public Level(int levelNumber, int width, int height, int timeLimit) {
+        this(levelNumber, width, height, timeLimit, BoardStorage.HEAP);
+    }
+    
+    /**
+     * Constructor del nivel eligiendo dónde se guardan las celdas del tablero.
+     * @param levelNumber Número del nivel.
+     * @param width Ancho del tablero.
+     * @param height Altura del tablero.
+     * @param timeLimit Lí­mite de tiempo en segundos.
+     * @param storage Almacenamiento de las celdas del tablero.
+     */
+    public Level(int levelNumber, int width, int height, int timeLimit, BoardStorage storage) {
         this.levelNumber = levelNumber;
-        this.board = new Board(width, height);
+        this.board = new Board(width, height, storage);
         this.timeLimit = timeLimit;
         this.timeRemaining = timeLimit;
         this.completed = false;
         this.fruitWaves = new ArrayList<>();
         this.currentWaveIndex = 0;
-        this.activeFruits = new ArrayList<>();
         this.totalFruitsToCollect = 0;
+        this.statistics = new LevelStatistics();
+        board.addListener(statistics);
+        this.scheduler = new TickScheduler(board);
+        this.collisions = new CollisionPhase(board);
+        this.tick = 0;
+        this.history = new LevelHistory(board);
+        history.recordInitial(timeRemaining, currentWaveIndex, completed);
     }
     
     /**
@@ -70,6 +92,8 @@ public class Level {
         for (Obstacle obstacle : config.getObstacles()) {
             board.addObject(obstacle);
         }
+        
+        history.recordInitial(timeRemaining, currentWaveIndex, completed);
     }
     
     /**
@@ -80,8 +104,8 @@ public class Level {
             List<Fruit> nextWave = fruitWaves.get(currentWaveIndex);
             for (Fruit fruit : nextWave) {
                 board.addObject(fruit);
-                activeFruits.add(fruit);
             }
+            board.fireWaveActivated(currentWaveIndex, nextWave);
             currentWaveIndex++;
         }
     }
@@ -90,12 +114,7 @@ public class Level {
      * Verifica si la oleada actual está completa
      */
     private boolean isCurrentWaveComplete() {
-        for (Fruit fruit : activeFruits) {
-            if (!fruit.isCollected()) {
-                return false;
-            }
-        }
-        return true;
+        return statistics.getPendingFruits() == 0;
     }
     
     /**
@@ -106,10 +125,9 @@ public class Level {
             return;
         }
         
-        List<GameObject> objects = board.getAllObjects();
-        for (GameObject obj : objects) {
-            obj.update(board);
-        }
+        board.advanceTick();
+        scheduler.tick();
+        collisions.resolve();
         
         checkCollectibles();
         
@@ -118,6 +136,56 @@ public class Level {
         }
         
         checkLevelCompletion();
+        
+        tick++;
+        history.record(tick, timeRemaining, currentWaveIndex, completed);
+    }
+    
+    /**
+     * Activa la actualización de enemigos en dos fases: decisiones en paralelo
+     * y aplicación determinista. Conviene en tableros con muchos enemigos.
+     */
+    public void setTwoPhaseEnemyUpdate(boolean twoPhase) {
+        scheduler.setTwoPhase(twoPhase);
+    }
+    
+    /**
+     * Exporta el estado actual como un BoardState inmutable, sobre el que los
+     * jugadores de máquina pueden probar jugadas sin modificar el nivel
+     */
+    public BoardState exportState() {
+        return BoardState.capture(board, history, tick, timeRemaining, currentWaveIndex, completed);
+    }
+    
+    /**
+     * Obtiene el identificador de un objeto en los estados exportados del nivel
+     */
+    int idOf(GameObject obj) {
+        return history.idOf(obj);
+    }
+    
+    /**
+     * Lleva el nivel a un estado exportado de él, posiblemente avanzado con
+     * el modelo de avance. El historial para retroceder empieza de nuevo.
+     * @throws BadDopoCreamException Si el estado se exportó de otro nivel, o
+     * hace tanto que sus objetos ya salieron del historial
+     */
+    public void importState(BoardState state) throws BadDopoCreamException {
+        if (!state.isFrom(history)) {
+            throw new BadDopoCreamException(BadDopoCreamException.INVALID_STATE);
+        }
+        state.applyTo(board, history);
+        restore(state.getTick(), state.getTimeRemaining(), state.getWaveIndex(), state.isCompleted());
+        history.restartAt(tick, timeRemaining, currentWaveIndex, completed);
+    }
+    
+    /**
+     * Resuelve los contactos en celdas compartidas sin avanzar el tick,
+     * por ejemplo justo después de que un jugador mueve su helado. Los
+     * intercambios de celda se buscan al final del tick.
+     */
+    public void resolveCollisions() {
+        collisions.resolveContacts();
     }
     
     /**
@@ -130,16 +198,19 @@ public class Level {
             }
             
             Position pos = iceCream.getPosition();
-            List<GameObject> objects = board.getObjectsAt(pos);
+            if (!board.hasFruitAt(pos)) {
+                continue;
+            }
             
-            for (GameObject obj : objects) {
+            board.forEachObjectAt(pos, obj -> {
                 if (obj instanceof Fruit fruit) {
                     if (fruit.isCollectable()) {
                         fruit.onCollect(iceCream);
                         board.removeObject(fruit);
+                        board.fireFruitCollected(fruit, iceCream);
                     }
                 }
-            }
+            });
         }
     }
     
@@ -181,14 +252,7 @@ public class Level {
      * Indica si el jugador ha perdido
      */
     public boolean hasLost() {
-        boolean allDead = true;
-        for (IceCream iceCream : board.getIceCreams()) {
-            if (iceCream.isAlive()) {
-                allDead = false;
-                break;
-            }
-        }
-        return isTimeUp() || allDead;
+        return isTimeUp() || statistics.getLiveIceCreams() == 0;
     }
     
     /**
@@ -216,15 +280,14 @@ public class Level {
      * Obtiene la cantidad de frutas recolectadas
      */
     public int getCollectedFruits() {
-        int collected = 0;
-        for (List<Fruit> wave : fruitWaves) {
-            for (Fruit fruit : wave) {
-                if (fruit.isCollected()) {
-                    collected++;
-                }
-            }
-        }
-        return collected;
+        return statistics.getCollectedFruits();
+    }
+    
+    /**
+     * Obtiene las estadísticas del nivel
+     */
+    public LevelStatistics getStatistics() {
+        return statistics;
     }
     
     /**
@@ -234,13 +297,46 @@ public class Level {
         return totalFruitsToCollect;
     }
     
+    /**
+     * Obtiene el tick del nivel, es decir, las actualizaciones realizadas
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    /**
+     * Obtiene el tick más antiguo al que todavía se puede retroceder
+     */
+    public long getOldestRewindTick() {
+        return history.getOldestTick();
+    }
+    
+    /**
+     * Retrocede el nivel a un tick reciente. Los ticks posteriores se descartan
+     * y el juego continúa desde ahí.
+     * @param targetTick Tick al que se quiere volver
+     * @return true si el tick estaba en el historial
+     */
+    public boolean rewindTo(long targetTick) {
+        return history.rewindTo(targetTick, this);
+    }
+    
     /**
      * Reinicia el nivel a su estado inicial
      */
     public void reset() {
-        timeRemaining = timeLimit;
-        completed = false;
-        // Nota: Se necesitarí­a recrear el tablero con la configuración original
-        // Esto se puede manejar desde la clase Game
+        history.reset(this);
+    }
+    
+    /**
+     * Restaura los valores del nivel guardados en el historial
+     */
+    void restore(long tick, int timeRemaining, int waveIndex, boolean completed) {
+        this.tick = tick;
+        this.timeRemaining = timeRemaining;
+        this.completed = completed;
+        this.currentWaveIndex = waveIndex;
+        statistics.recount(board, fruitWaves, waveIndex);
+        collisions.clear();
     }
 }
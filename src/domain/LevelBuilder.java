@@ -2,6 +2,7 @@ package domain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Builder para construir niveles de forma fluida.
@@ -14,13 +15,49 @@ import java.util.List;
 public class LevelBuilder {
     private LevelConfiguration config;
     private List<Fruit> currentWave;
+    private SplittableRandom random; // Raíz de la que se divide un generador por enemigo
     
     /**
-     * Constructor del LevelBuilder.
+     * Constructor del LevelBuilder con una semilla aleatoria.
      */
     public LevelBuilder() {
+        this(new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Constructor del LevelBuilder con una semilla fija.
+     * Dos niveles construidos con la misma semilla se comportan igual.
+     * @param seed Semilla de la partida
+     */
+    public LevelBuilder(long seed) {
         this.config = new LevelConfiguration();
+        this.config.setSeed(seed);
         this.currentWave = new ArrayList<>();
+        this.random = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Establece las dimensiones del tablero del nivel
+     */
+    public LevelBuilder setBoardSize(int width, int height) {
+        config.setBoardSize(width, height);
+        return this;
+    }
+    
+    /**
+     * Establece dónde se guardan las celdas del tablero del nivel
+     */
+    public LevelBuilder setBoardStorage(BoardStorage storage) {
+        config.setBoardStorage(storage);
+        return this;
+    }
+    
+    /**
+     * Establece el tiempo límite del nivel en segundos
+     */
+    public LevelBuilder setTimeLimit(int seconds) {
+        config.setTimeLimit(seconds);
+        return this;
     }
     
     /**
@@ -81,7 +118,7 @@ public class LevelBuilder {
      * Agrega un enemigo Troll en una posición
      */
     public LevelBuilder addTroll(int x, int y) {
-        config.addEnemy(new Troll(new Position(x, y)));
+        config.addEnemy(new Troll(new Position(x, y), random.split()));
         return this;
     }
     
@@ -12,10 +12,19 @@ import java.util.List;
  * @version 1.0
  */
 public class LevelConfiguration {
+    public static final int DEFAULT_WIDTH = 25;
+    public static final int DEFAULT_HEIGHT = 15;
+    public static final int DEFAULT_TIME_LIMIT = 180; // 3 minutos
+    
     private List<IceCream> iceCreams;
     private List<List<Fruit>> fruitWaves; // Oleadas de frutas
     private List<Enemy> enemies;
     private List<Obstacle> obstacles;
+    private long seed;
+    private int width;
+    private int height;
+    private int timeLimit; // En segundos
+    private BoardStorage storage;
     
     /**
      * Constructor de la configuración del nivel.
@@ -25,6 +34,79 @@ public class LevelConfiguration {
         this.fruitWaves = new ArrayList<>();
         this.enemies = new ArrayList<>();
         this.obstacles = new ArrayList<>();
+        this.width = DEFAULT_WIDTH;
+        this.height = DEFAULT_HEIGHT;
+        this.timeLimit = DEFAULT_TIME_LIMIT;
+        this.storage = BoardStorage.HEAP;
+    }
+    
+    /**
+     * Establece dónde se guardan las celdas del tablero del nivel
+     */
+    public void setBoardStorage(BoardStorage storage) {
+        this.storage = storage;
+    }
+    
+    /**
+     * Obtiene dónde se guardan las celdas del tablero del nivel
+     */
+    public BoardStorage getBoardStorage() {
+        return storage;
+    }
+    
+    /**
+     * Establece las dimensiones del tablero del nivel
+     * @param width Ancho del tablero
+     * @param height Altura del tablero
+     */
+    public void setBoardSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Obtiene el ancho del tablero del nivel
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Obtiene la altura del tablero del nivel
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Establece el tiempo límite del nivel
+     * @param timeLimit Tiempo en segundos
+     */
+    public void setTimeLimit(int timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+    
+    /**
+     * Obtiene el tiempo límite del nivel en segundos
+     */
+    public int getTimeLimit() {
+        return timeLimit;
+    }
+    
+    /**
+     * Establece la semilla con la que se construyó el nivel
+     * @param seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Obtiene la semilla con la que se construyó el nivel
+     * @return la semilla
+     */
+    public long getSeed() {
+        return seed;
     }
     
     /**
@@ -0,0 +1,558 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial acotado de los estados de un nivel para retroceder en el tiempo.
+ * Guarda un fotograma por tick en un buffer circular: cada KEYFRAME_INTERVAL
+ * ticks un fotograma completo y, entre ellos, solo los objetos que se movieron,
+ * aparecieron, desaparecieron o cambiaron de estado.
+ *
+ * Los cambios se conocen por los eventos del tablero; como girar no genera
+ * eventos, los helados y enemigos se revisan en cada tick. Así un tick cuesta
+ * según los objetos activos y los cambios, no según el tamaño del tablero.
+ * Los identificadores de los objetos que ya no aparecen en ningún fotograma
+ * guardado se retiran y se reutilizan.
+ *
+ * El estado de cada objeto se empaqueta en un long: presencia en el tablero,
+ * vida, fruta recolectada, dirección si la tiene, celda y puntaje. Los giros
+ * aleatorios de los trolls dependen solo de este estado, así que tras
+ * retroceder se repiten las mismas decisiones.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+class LevelHistory implements GameEventListener {
+    public static final int KEYFRAME_INTERVAL = 20;
+    public static final int CAPACITY = 320; // Ticks recientes que se conservan
+
+    private static final long PRESENT = 1L;
+    private static final long ALIVE = 1L << 1;
+    private static final long COLLECTED = 1L << 2;
+    private static final int FACING_SHIFT = 3; // 0 sin dirección, si no el ordinal más uno
+    private static final int CELL_SHIFT = 6;
+    private static final long CELL_MASK = (1L << 26) - 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final long ON_BOARD = -1; // Valor de removedAt de un objeto en el tablero
+    private static final long RETIRING = -2;
+
+    private final Board board;
+    private final List<GameObject> objects; // Objeto por identificador, null si se retiró
+    private final Map<GameObject, Integer> ids;
+    private int[] freeIds; // Identificadores retirados que se pueden reutilizar
+    private int freeCount;
+    private final Frame[] frames;
+    private int head; // Índice del fotograma más antiguo
+    private int count;
+    private Frame initial;
+    private Object idSpace; // Se reemplaza al retirar identificadores
+
+    private long[] states; // Estado de cada objeto en el último fotograma registrado
+    private boolean[] dirty;
+    private int[] dirtyIds; // Objetos con eventos desde el último fotograma
+    private int dirtyCount;
+    private int[] changedIds; // Memoria de trabajo para armar los fotogramas diferenciales
+    private long[] changedStates;
+
+    // Objetos que dejaron el tablero, en orden de tick, para retirarlos
+    private long[] removedAt; // Tick desde el que cada objeto falta del tablero
+    private int[] removedIds;
+    private long[] removedTicks;
+    private int removedHead;
+    private int removedCount;
+
+    /**
+     * Estado de un tick: completo si ids es null, diferencial en otro caso
+     */
+    private static final class Frame {
+        private final long tick;
+        private final int timeRemaining;
+        private final int waveIndex;
+        private final boolean completed;
+        private final int[] ids;
+        private final long[] states;
+
+        private Frame(long tick, int timeRemaining, int waveIndex, boolean completed, int[] ids, long[] states) {
+            this.tick = tick;
+            this.timeRemaining = timeRemaining;
+            this.waveIndex = waveIndex;
+            this.completed = completed;
+            this.ids = ids;
+            this.states = states;
+        }
+
+        private boolean isKeyframe() {
+            return ids == null;
+        }
+    }
+
+    /**
+     * Constructor del historial
+     * @param board Tablero del nivel
+     */
+    LevelHistory(Board board) {
+        this.board = board;
+        this.objects = new ArrayList<>();
+        this.ids = new IdentityHashMap<>();
+        this.freeIds = new int[0];
+        this.frames = new Frame[CAPACITY];
+        this.idSpace = new Object();
+        this.states = new long[0];
+        this.dirty = new boolean[0];
+        this.dirtyIds = new int[16];
+        this.changedIds = new int[16];
+        this.changedStates = new long[16];
+        this.removedAt = new long[0];
+        this.removedIds = new int[16];
+        this.removedTicks = new long[16];
+        board.addListener(this);
+    }
+
+    @Override
+    public void objectAdded(GameObject object) {
+        markDirty(object);
+    }
+
+    @Override
+    public void objectRemoved(GameObject object) {
+        markDirty(object);
+    }
+
+    @Override
+    public void objectMoved(GameObject object, Position from, Position to) {
+        markDirty(object);
+    }
+
+    @Override
+    public void fruitCollected(Fruit fruit, IceCream collector) {
+        markDirty(fruit);
+    }
+
+    @Override
+    public void iceCreamEliminated(IceCream iceCream) {
+        markDirty(iceCream);
+    }
+
+    /**
+     * Registra el estado inicial del nivel, al que siempre se puede volver
+     */
+    void recordInitial(int timeRemaining, int waveIndex, boolean completed) {
+        clear();
+        for (GameObject obj : board.getAllObjects()) {
+            idOf(obj);
+        }
+        recaptureAll();
+        initial = new Frame(0, timeRemaining, waveIndex, completed, null, snapshot());
+        push(initial);
+        restartRemovals(0);
+    }
+
+    /**
+     * Registra el estado del nivel al final de un tick
+     */
+    void record(long tick, int timeRemaining, int waveIndex, boolean completed) {
+        // Los giros no generan eventos
+        for (IceCream iceCream : board.getIceCreams()) {
+            markDirty(iceCream);
+        }
+        for (Enemy enemy : board.getEnemies()) {
+            markDirty(enemy);
+        }
+
+        int changed = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int id = dirtyIds[i];
+            dirty[id] = false;
+            long state = capture(objects.get(id));
+            if ((state & PRESENT) != 0) {
+                removedAt[id] = ON_BOARD;
+            } else if (removedAt[id] == ON_BOARD) {
+                removedAt[id] = tick;
+                enqueueRemoved(id, tick);
+            }
+            if (state == states[id]) {
+                continue;
+            }
+            states[id] = state;
+            if (changed == changedIds.length) {
+                changedIds = Arrays.copyOf(changedIds, changed * 2);
+                changedStates = Arrays.copyOf(changedStates, changed * 2);
+            }
+            changedIds[changed] = id;
+            changedStates[changed++] = state;
+        }
+        dirtyCount = 0;
+
+        if (tick % KEYFRAME_INTERVAL == 0) {
+            push(new Frame(tick, timeRemaining, waveIndex, completed, null, snapshot()));
+        } else {
+            push(new Frame(tick, timeRemaining, waveIndex, completed,
+                    Arrays.copyOf(changedIds, changed), Arrays.copyOf(changedStates, changed)));
+        }
+    }
+
+    /**
+     * Obtiene el tick más antiguo al que se puede retroceder
+     */
+    long getOldestTick() {
+        for (int i = 0; i < count; i++) {
+            Frame frame = frameAt(i);
+            if (frame.isKeyframe()) {
+                return frame.tick;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el tick más reciente registrado
+     */
+    long getNewestTick() {
+        return count == 0 ? -1 : frameAt(count - 1).tick;
+    }
+
+    /**
+     * Reconstruye el estado de un tick y lo aplica al tablero.
+     * Los fotogramas posteriores se descartan.
+     * @param level Nivel que recibe los valores del tick
+     * @return false si el tick ya no está en el historial
+     */
+    boolean rewindTo(long tick, Level level) {
+        long oldest = getOldestTick();
+        if (oldest < 0 || tick < oldest || tick > getNewestTick()) {
+            return false;
+        }
+
+        int index = (int) (tick - frameAt(0).tick);
+        int keyIndex = index;
+        while (!frameAt(keyIndex).isKeyframe()) {
+            keyIndex--;
+        }
+
+        long[] target = Arrays.copyOf(frameAt(keyIndex).states, objects.size());
+        for (int i = keyIndex + 1; i <= index; i++) {
+            Frame frame = frameAt(i);
+            for (int j = 0; j < frame.ids.length; j++) {
+                target[frame.ids[j]] = frame.states[j];
+            }
+        }
+
+        Frame frame = frameAt(index);
+        apply(target);
+        level.restore(frame.tick, frame.timeRemaining, frame.waveIndex, frame.completed);
+        for (int i = index + 1; i < count; i++) {
+            frames[(head + i) % frames.length] = null;
+        }
+        count = index + 1;
+        recaptureAll();
+
+        // Los retiros pendientes posteriores al tick ya no valen
+        while (removedCount > 0 && removedTicks[(removedHead + removedCount - 1) % removedTicks.length] > tick) {
+            removedCount--;
+        }
+        for (int id = 0; id < objects.size(); id++) {
+            if (objects.get(id) != null && (states[id] & PRESENT) == 0
+                    && (removedAt[id] == ON_BOARD || removedAt[id] > tick)) {
+                removedAt[id] = tick;
+                enqueueRemoved(id, tick);
+            } else if ((states[id] & PRESENT) != 0) {
+                removedAt[id] = ON_BOARD;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vuelve al estado inicial y descarta el resto del historial
+     * @param level Nivel que recibe los valores iniciales
+     */
+    void reset(Level level) {
+        apply(initial.states);
+        level.restore(0, initial.timeRemaining, initial.waveIndex, initial.completed);
+        clear();
+        push(initial);
+        recaptureAll();
+        restartRemovals(0);
+    }
+
+    /**
+     * Descarta el historial y lo reinicia en el estado actual, por ejemplo
+     * tras importar un estado. El estado inicial se conserva para reset.
+     */
+    void restartAt(long tick, int timeRemaining, int waveIndex, boolean completed) {
+        clear();
+        recaptureAll();
+        push(new Frame(tick, timeRemaining, waveIndex, completed, null, snapshot()));
+        restartRemovals(tick);
+    }
+
+    /**
+     * Obtiene el identificador de un objeto, asignándole uno si es nuevo.
+     * Reutiliza los identificadores retirados.
+     */
+    int idOf(GameObject obj) {
+        Integer known = ids.get(obj);
+        if (known != null) {
+            return known;
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+            objects.set(id, obj);
+        } else {
+            id = objects.size();
+            objects.add(obj);
+            if (id == states.length) {
+                int capacity = Math.max(16, id * 2);
+                states = Arrays.copyOf(states, capacity);
+                dirty = Arrays.copyOf(dirty, capacity);
+                removedAt = Arrays.copyOf(removedAt, capacity);
+            }
+        }
+        ids.put(obj, id);
+        removedAt[id] = ON_BOARD;
+        return id;
+    }
+
+    /**
+     * Obtiene el objeto de un identificador
+     * @return El objeto, o null si el identificador está retirado
+     */
+    GameObject objectAt(int id) {
+        return objects.get(id);
+    }
+
+    /**
+     * Obtiene la cantidad de identificadores asignados, incluidos los retirados
+     */
+    int objectCount() {
+        return objects.size();
+    }
+
+    /**
+     * Obtiene el espacio de identificadores vigente. Cambia cuando se retiran
+     * identificadores, así los estados exportados antes dejan de aplicarse.
+     */
+    Object getIdSpace() {
+        return idSpace;
+    }
+
+    private void clear() {
+        Arrays.fill(frames, null);
+        head = 0;
+        count = 0;
+    }
+
+    private Frame frameAt(int i) {
+        return frames[(head + i) % frames.length];
+    }
+
+    /**
+     * Agrega un fotograma; si el buffer está lleno descarta el grupo más
+     * antiguo y retira los objetos que ya no aparecen en ningún fotograma
+     */
+    private void push(Frame frame) {
+        if (count == frames.length) {
+            do {
+                frames[head] = null;
+                head = (head + 1) % frames.length;
+                count--;
+            } while (count > 0 && !frameAt(0).isKeyframe());
+            if (count > 0) {
+                retireBefore(frameAt(0).tick);
+            }
+        }
+        frames[(head + count) % frames.length] = frame;
+        count++;
+    }
+
+    private void markDirty(GameObject obj) {
+        int id = idOf(obj);
+        if (!dirty[id]) {
+            dirty[id] = true;
+            if (dirtyCount == dirtyIds.length) {
+                dirtyIds = Arrays.copyOf(dirtyIds, dirtyCount * 2);
+            }
+            dirtyIds[dirtyCount++] = id;
+        }
+    }
+
+    /**
+     * Vuelve a empaquetar el estado de todos los objetos, tras cambios que no
+     * pasan por los eventos como retroceder o importar un estado
+     */
+    private void recaptureAll() {
+        for (int id = 0; id < objects.size(); id++) {
+            GameObject obj = objects.get(id);
+            states[id] = obj == null ? 0 : capture(obj);
+            dirty[id] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    private long[] snapshot() {
+        return Arrays.copyOf(states, objects.size());
+    }
+
+    /**
+     * Empaqueta el estado de un objeto, con su presencia en el tablero
+     */
+    private long capture(GameObject obj) {
+        return encode(obj) | (obj.zobristKey != 0 ? PRESENT : 0);
+    }
+
+    /**
+     * Reinicia la cola de retiros tras descartar el historial: todos los
+     * objetos fuera del tablero cuentan como removidos en el tick dado
+     */
+    private void restartRemovals(long tick) {
+        removedHead = 0;
+        removedCount = 0;
+        for (int id = 0; id < objects.size(); id++) {
+            if (objects.get(id) != null && (states[id] & PRESENT) == 0) {
+                removedAt[id] = tick;
+                enqueueRemoved(id, tick);
+            } else {
+                removedAt[id] = ON_BOARD;
+            }
+        }
+    }
+
+    private void enqueueRemoved(int id, long tick) {
+        if (removedCount == removedIds.length) {
+            int[] grownIds = new int[removedCount * 2];
+            long[] grownTicks = new long[removedCount * 2];
+            for (int i = 0; i < removedCount; i++) {
+                grownIds[i] = removedIds[(removedHead + i) % removedIds.length];
+                grownTicks[i] = removedTicks[(removedHead + i) % removedTicks.length];
+            }
+            removedIds = grownIds;
+            removedTicks = grownTicks;
+            removedHead = 0;
+        }
+        int slot = (removedHead + removedCount++) % removedIds.length;
+        removedIds[slot] = id;
+        removedTicks[slot] = tick;
+    }
+
+    /**
+     * Retira los objetos que faltan del tablero desde antes del fotograma más
+     * antiguo y que tampoco están en el estado inicial. Sus entradas en los
+     * fotogramas se limpian, para que el objeto que reutilice el
+     * identificador empiece sin estado previo.
+     */
+    private void retireBefore(long oldest) {
+        int retired = 0;
+        while (removedCount > 0 && removedTicks[removedHead] <= oldest) {
+            int id = removedIds[removedHead];
+            long tick = removedTicks[removedHead];
+            removedHead = (removedHead + 1) % removedIds.length;
+            removedCount--;
+            boolean initiallyPresent = id < initial.states.length && (initial.states[id] & PRESENT) != 0;
+            if (removedAt[id] != tick || initiallyPresent) {
+                continue; // Volvió al tablero después o se necesita para reset
+            }
+            ids.remove(objects.set(id, null));
+            removedAt[id] = RETIRING;
+            states[id] = 0;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, Math.max(16, freeCount * 2));
+            }
+            freeIds[freeCount++] = id;
+            retired++;
+        }
+        if (retired == 0) {
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            Frame frame = frameAt(i);
+            if (frame.isKeyframe()) {
+                for (int f = freeCount - retired; f < freeCount; f++) {
+                    if (freeIds[f] < frame.states.length) {
+                        frame.states[freeIds[f]] = 0;
+                    }
+                }
+            } else {
+                for (int j = 0; j < frame.ids.length; j++) {
+                    if (removedAt[frame.ids[j]] == RETIRING) {
+                        frame.states[j] = 0;
+                    }
+                }
+            }
+        }
+        for (int f = freeCount - retired; f < freeCount; f++) {
+            if (freeIds[f] < initial.states.length) {
+                initial.states[freeIds[f]] = 0;
+            }
+            removedAt[freeIds[f]] = ON_BOARD;
+        }
+        idSpace = new Object();
+    }
+
+    /**
+     * Lleva el tablero y los objetos al estado indicado
+     */
+    private void apply(long[] states) {
+        boolean[] onBoard = new boolean[objects.size()];
+        for (GameObject obj : board.getAllObjects()) {
+            Integer id = ids.get(obj);
+            if (id == null || id >= states.length || (states[id] & PRESENT) == 0) {
+                board.removeObject(obj); // No existía o no estaba en el tablero en ese tick
+            } else {
+                onBoard[id] = true;
+            }
+        }
+
+        for (int id = 0; id < states.length; id++) {
+            GameObject obj = objects.get(id);
+            if (obj == null) {
+                continue;
+            }
+            long state = states[id];
+            decode(obj, state);
+            if ((state & PRESENT) == 0) {
+                continue;
+            }
+            Position position = board.getPosition((int) ((state >>> CELL_SHIFT) & CELL_MASK));
+            if (!onBoard[id]) {
+                obj.setPosition(position);
+                board.addObject(obj);
+            } else if (!obj.getPosition().equals(position)) {
+                board.moveObject(obj, position);
+            }
+        }
+    }
+
+    private long encode(GameObject obj) {
+        int cell = board.getCellIndex(obj.getPosition());
+        long state = (long) Math.max(cell, 0) << CELL_SHIFT;
+        if (obj instanceof Movable movable && movable.getFacingDirection() != null) {
+            state |= (long) (movable.getFacingDirection().ordinal() + 1) << FACING_SHIFT;
+        }
+        if (obj instanceof IceCream iceCream) {
+            state |= iceCream.isAlive() ? ALIVE : 0;
+            state |= (long) iceCream.getScore() << 32;
+        } else if (obj instanceof Fruit fruit && fruit.isCollected()) {
+            state |= COLLECTED;
+        }
+        return state;
+    }
+
+    private void decode(GameObject obj, long state) {
+        int facing = (int) ((state >>> FACING_SHIFT) & 7);
+        if (obj instanceof Movable movable && facing != 0) {
+            board.turnObject(movable, DIRECTIONS[facing - 1]);
+        }
+        if (obj instanceof IceCream iceCream) {
+            iceCream.restoreState((state & ALIVE) != 0, (int) (state >>> 32));
+        } else if (obj instanceof Fruit fruit) {
+            fruit.restoreCollected((state & COLLECTED) != 0);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package domain;
+
+import java.util.List;
+
+/**
+ * Estadísticas de un nivel mantenidas a partir de los eventos del tablero.
+ * Cada consulta responde en tiempo constante: frutas recolectadas, frutas
+ * pendientes de la oleada actual, helados vivos y puntaje total.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class LevelStatistics implements GameEventListener {
+    private int collectedFruits;
+    private int pendingFruits; // Frutas activas sin recolectar
+    private int liveIceCreams; // Helados vivos en el tablero
+    private int totalScore; // Puntaje de los helados en el tablero
+
+    /**
+     * Constructor de estadísticas vacías
+     */
+    public LevelStatistics() {
+        this.collectedFruits = 0;
+        this.pendingFruits = 0;
+        this.liveIceCreams = 0;
+        this.totalScore = 0;
+    }
+
+    @Override
+    public void objectAdded(GameObject object) {
+        if (object instanceof IceCream iceCream) {
+            totalScore += iceCream.getScore();
+            if (iceCream.isAlive()) {
+                liveIceCreams++;
+            }
+        }
+    }
+
+    @Override
+    public void objectRemoved(GameObject object) {
+        if (object instanceof IceCream iceCream) {
+            totalScore -= iceCream.getScore();
+            if (iceCream.isAlive()) {
+                liveIceCreams--;
+            }
+        }
+    }
+
+    @Override
+    public void fruitCollected(Fruit fruit, IceCream collector) {
+        collectedFruits++;
+        pendingFruits--;
+    }
+
+    @Override
+    public void iceCreamEliminated(IceCream iceCream) {
+        liveIceCreams--;
+    }
+
+    @Override
+    public void scoreChanged(IceCream iceCream, int points) {
+        totalScore += points;
+    }
+
+    @Override
+    public void waveActivated(int waveIndex, List<Fruit> fruits) {
+        for (Fruit fruit : fruits) {
+            if (!fruit.isCollected()) {
+                pendingFruits++;
+            }
+        }
+    }
+
+    /**
+     * Vuelve a contar todo desde el estado actual.
+     * Se usa cuando el estado cambia sin eventos, como al retroceder el nivel.
+     * @param board Tablero del nivel
+     * @param fruitWaves Oleadas del nivel
+     * @param activeWaves Cantidad de oleadas activadas
+     */
+    void recount(Board board, List<List<Fruit>> fruitWaves, int activeWaves) {
+        collectedFruits = 0;
+        pendingFruits = 0;
+        for (int i = 0; i < fruitWaves.size(); i++) {
+            for (Fruit fruit : fruitWaves.get(i)) {
+                if (fruit.isCollected()) {
+                    collectedFruits++;
+                } else if (i < activeWaves) {
+                    pendingFruits++;
+                }
+            }
+        }
+
+        liveIceCreams = 0;
+        totalScore = 0;
+        for (IceCream iceCream : board.getIceCreams()) {
+            objectAdded(iceCream);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de frutas recolectadas
+     */
+    public int getCollectedFruits() {
+        return collectedFruits;
+    }
+
+    /**
+     * Obtiene la cantidad de frutas activas que faltan por recolectar
+     */
+    public int getPendingFruits() {
+        return pendingFruits;
+    }
+
+    /**
+     * Obtiene la cantidad de helados vivos
+     */
+    public int getLiveIceCreams() {
+        return liveIceCreams;
+    }
+
+    /**
+     * Obtiene el puntaje total de los helados del nivel
+     */
+    public int getTotalScore() {
+        return totalScore;
+    }
+}
@@ -1,38 +1,50 @@
 package domain;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Estrategia de movimiento lineal, se mueve en línea recta y cambia de dirección al chocar.
+ * Los giros dependen solo de la semilla del enemigo y del hash del tablero, así
+ * que desde el mismo estado siempre se repiten, también tras retroceder.
  * 
  * @author Juan Daniel Bogotá Fuentes
  * @author Nicolás Felipe Bernal Gallo
  * @version 1.0
  */
 public class LinearMovement implements MovementStrategy {
-    private Random random;
+    private final long seed;
     
     /**
-     * Constructor de la estrategia de movimiento lineal
+     * Constructor de la estrategia de movimiento lineal sin semilla
      */
     public LinearMovement() {
-        this.random = new Random();
+        this(new SplittableRandom());
+    }
+    
+    /**
+     * Constructor de la estrategia de movimiento lineal con un generador propio.
+     * Con la misma semilla los giros aleatorios se repiten igual.
+     * @param random Generador de números aleatorios de este enemigo, del que se toma su semilla
+     */
+    public LinearMovement(SplittableRandom random) {
+        this.seed = random.nextLong();
     }
     
     @Override
     public Direction calculateNextDirection(Position currentPosition, Direction currentDirection, Board board) {
-        Position nextPosition = currentPosition.move(currentDirection);
+        int currentCell = board.getCellIndex(currentPosition);
         
-        if (canMoveTo(nextPosition, board)) {
+        if (canMoveTo(board.getNeighbor(currentCell, currentDirection), board)) {
             return currentDirection;
         }
         
         Direction[] directions = Direction.values();
         Direction newDirection = currentDirection;
+        SplittableRandom random = new SplittableRandom(seed ^ board.getHash());
         
         for (int i = 0; i < 10; i++) {
             Direction randomDir = directions[random.nextInt(directions.length)];
-            if (canMoveTo(currentPosition.move(randomDir), board)) {
+            if (canMoveTo(board.getNeighbor(currentCell, randomDir), board)) {
                 newDirection = randomDir;
                 break;
             }
@@ -45,4 +57,11 @@ public class LinearMovement implements MovementStrategy {
     public boolean canMoveTo(Position position, Board board) {
         return board.isValidPosition(position) && !board.isSolidAt(position);
     }
+    
+    /**
+     * Determina si el objeto puede moverse a una celda empaquetada
+     */
+    private boolean canMoveTo(int cell, Board board) {
+        return cell >= 0 && !board.isSolidAt(cell);
+    }
 }
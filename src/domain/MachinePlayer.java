@@ -0,0 +1,35 @@
+package domain;
+
+import java.util.function.Supplier;
+
+/**
+ * Jugador controlado por la máquina.
+ * Decide la acción de un helado a partir del estado actual del juego.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public interface MachinePlayer {
+    
+    /**
+     * Elige la siguiente acción para un helado
+     * @param game El juego en curso
+     * @param iceCream El helado controlado por este jugador
+     * @return La acción a realizar
+     */
+    GameAction chooseAction(BadDopoCream game, IceCream iceCream);
+    
+    /**
+     * Lee del juego lo necesario para decidir y retorna la decisión pendiente.
+     * La decisión no toca el juego, así se puede calcular en otro hilo
+     * mientras el juego sigue. Por defecto decide de una vez en el hilo que llama.
+     * @param game El juego en curso
+     * @param iceCream El helado controlado por este jugador
+     * @return La decisión, que al obtenerse retorna la acción a realizar
+     */
+    default Supplier<GameAction> prepareAction(BadDopoCream game, IceCream iceCream) {
+        GameAction action = chooseAction(game, iceCream);
+        return () -> action;
+    }
+}
@@ -0,0 +1,225 @@
+package domain;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Jugador de máquina que elige su acción con búsqueda de árbol Monte Carlo.
+ * Considera las cuatro direcciones y crear o romper hielo. Cada hilo construye
+ * su propio árbol desde el estado actual y al vencer el tiempo se suman las
+ * visitas de las acciones de la raíz. Las simulaciones avanzan sobre copias
+ * BoardState del nivel, que no se modifica; los nodos solo guardan
+ * estadísticas y el estado se vuelve a simular en cada iteración, así los
+ * giros al azar de los enemigos se muestrean de nuevo cada vez.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class MonteCarloPlayer implements MachinePlayer {
+    public static final long DEFAULT_TIME_BUDGET = 250; // Milisegundos, deja margen dentro del tick de 400 ms
+    private static final int TREE_DEPTH = 8; // Pasos máximos dentro del árbol
+    private static final int ROLLOUT_DEPTH = 12; // Pasos al azar después de la hoja
+    private static final double EXPLORATION = 1.0;
+
+    private final SplittableRandom random;
+    private final long timeBudget;
+    private final int parallelism;
+    private int iterationLimit;
+
+    /**
+     * Constructor del jugador con el tiempo por defecto y un árbol por núcleo
+     * @param seed Semilla del generador de números aleatorios
+     */
+    public MonteCarloPlayer(long seed) {
+        this(seed, DEFAULT_TIME_BUDGET, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor del jugador con un tiempo y una cantidad de árboles específicos
+     * @param seed Semilla del generador de números aleatorios
+     * @param timeBudget Milisegundos para decidir cada acción
+     * @param parallelism Cantidad de árboles que se construyen en paralelo
+     */
+    public MonteCarloPlayer(long seed, long timeBudget, int parallelism) {
+        this.random = new SplittableRandom(seed);
+        this.timeBudget = timeBudget;
+        this.parallelism = Math.max(1, parallelism);
+        this.iterationLimit = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Limita las iteraciones de cada árbol. Con un límite alcanzable dentro
+     * del tiempo y la misma semilla, las decisiones se repiten igual.
+     */
+    public void setIterationLimit(int iterationLimit) {
+        this.iterationLimit = iterationLimit;
+    }
+
+    @Override
+    public GameAction chooseAction(BadDopoCream game, IceCream iceCream) {
+        return prepareAction(game, iceCream).get();
+    }
+
+    /**
+     * Exporta el nivel en el hilo que llama; la búsqueda, con su tiempo
+     * completo, ocurre al obtener la decisión
+     */
+    @Override
+    public Supplier<GameAction> prepareAction(BadDopoCream game, IceCream iceCream) {
+        if (!iceCream.isAlive() || game.getCurrentLevel() == null) {
+            return () -> GameAction.NONE;
+        }
+        SearchModel model = new SearchModel(game, iceCream);
+        return () -> search(model);
+    }
+
+    /**
+     * Construye los árboles hasta el tiempo límite y elige la acción más visitada
+     */
+    private GameAction search(SearchModel model) {
+        long deadline = System.nanoTime() + timeBudget * 1_000_000;
+        Search[] trees = new Search[parallelism];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new Search(model, random.split(), deadline);
+        }
+        ForkJoinTask.invokeAll(trees);
+
+        int[] visits = new int[SearchModel.ACTIONS.length];
+        for (Search tree : trees) {
+            for (int a = 0; a < visits.length; a++) {
+                visits[a] += tree.root.visitsOf(a);
+            }
+        }
+        int best = -1;
+        for (int a = 0; a < visits.length; a++) {
+            if (visits[a] > 0 && (best < 0 || visits[a] > visits[best])) {
+                best = a;
+            }
+        }
+        return best < 0 ? GameAction.NONE : SearchModel.ACTIONS[best];
+    }
+
+    /**
+     * Nodo del árbol: visitas y recompensa acumulada de cada acción
+     */
+    private static class Node {
+        private final Node[] children = new Node[SearchModel.ACTIONS.length];
+        private final int[] visits = new int[SearchModel.ACTIONS.length];
+        private final double[] rewards = new double[SearchModel.ACTIONS.length];
+        private int total;
+
+        int visitsOf(int action) {
+            return visits[action];
+        }
+
+        /**
+         * Elige una acción sin probar o, si ya se probaron todas, la de mayor UCB1
+         */
+        int select(SplittableRandom random) {
+            int untried = 0;
+            for (int a = 0; a < visits.length; a++) {
+                if (visits[a] == 0) {
+                    untried++;
+                }
+            }
+            if (untried > 0) {
+                int pick = random.nextInt(untried);
+                for (int a = 0; a < visits.length; a++) {
+                    if (visits[a] == 0 && pick-- == 0) {
+                        return a;
+                    }
+                }
+            }
+
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logTotal = Math.log(total);
+            for (int a = 0; a < visits.length; a++) {
+                double score = rewards[a] / visits[a] + EXPLORATION * Math.sqrt(logTotal / visits[a]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = a;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Tarea fork-join que construye un árbol hasta el tiempo límite
+     */
+    private class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SearchModel model;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final Node root;
+
+        Search(SearchModel model, SplittableRandom random, long deadline) {
+            this.model = model;
+            this.random = random;
+            this.deadline = deadline;
+            this.root = new Node();
+        }
+
+        @Override
+        protected void compute() {
+            SearchModel.Scratch scratch = new SearchModel.Scratch();
+            int[] path = new int[TREE_DEPTH];
+            Node[] nodes = new Node[TREE_DEPTH];
+            for (int i = 0; i < iterationLimit && System.nanoTime() < deadline; i++) {
+                // Selección y expansión
+                BoardState state = model.getRoot();
+                Node node = root;
+                int depth = 0;
+                boolean expanded = false;
+                while (depth < TREE_DEPTH && !expanded && !model.isLost(state)) {
+                    int action = node.select(random);
+                    expanded = node.visits[action] == 0;
+                    nodes[depth] = node;
+                    path[depth++] = action;
+                    state = model.advance(state, SearchModel.ACTIONS[action], random, scratch);
+                    if (!expanded) {
+                        if (node.children[action] == null) {
+                            node.children[action] = new Node();
+                        }
+                        node = node.children[action];
+                    }
+                }
+
+                // Simulación al azar
+                int steps = depth;
+                for (int step = 0; step < ROLLOUT_DEPTH && !model.isLost(state); step++) {
+                    state = model.advance(state, rolloutAction(), random, scratch);
+                    steps++;
+                }
+
+                // Retropropagación
+                double reward = model.evaluate(state, (double) steps / (TREE_DEPTH + ROLLOUT_DEPTH));
+                for (int d = 0; d < depth; d++) {
+                    nodes[d].visits[path[d]]++;
+                    nodes[d].rewards[path[d]] += reward;
+                    nodes[d].total++;
+                }
+            }
+        }
+
+        /**
+         * Acción de las simulaciones: casi siempre moverse, a veces usar el hielo
+         */
+        private GameAction rolloutAction() {
+            int roll = random.nextInt(20);
+            if (roll == 0) {
+                return GameAction.CREATE_ICE;
+            }
+            if (roll == 1) {
+                return GameAction.BREAK_ICE;
+            }
+            return SearchModel.ACTIONS[roll & 3];
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package domain;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Almacenamiento de celdas en memoria directa, fuera del heap.
+ * Cada celda se ubica por su índice empaquetado (y * ancho + x) y guarda el
+ * identificador de su primer objeto; los objetos que comparten celda se
+ * enlazan en un pool de pares (identificador, siguiente). Las capas son planos
+ * de bits. En el heap solo queda la tabla que traduce identificadores a
+ * objetos, así miles de tableros vivos casi no le dan trabajo al recolector.
+ *
+ * Los valores guardados son índice + 1, para que 0, el contenido inicial de
+ * la memoria directa, signifique vacío.
+ *
+ * Costo por tablero: al crearlo se reservan 4 bytes por celda para los
+ * primeros objetos y 1 byte por celda para las capas, unos 80 MB en un
+ * tablero de 4096 x 4096. La primera celda compartida agrega 4 bytes por
+ * celda y el primer cambio de transitabilidad otros 8. Cada buffer debe caber
+ * en 2 GB; si no, crear el tablero falla en lugar de truncarlo.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+class OffHeapCellStore implements CellStore {
+    private final int width;
+    private final int cellCount;
+    private final int words; // Palabras de 64 bits por capa
+    private final IntBuffer occupants; // Primer objeto de cada celda
+    private IntBuffer overflow; // Primer espacio del pool de cada celda, se crea con el primero
+    private final LongBuffer layers; // Las capas una tras otra
+    private LongBuffer changedAt; // Se crea con el primer cambio de transitabilidad
+    private IntBuffer pool; // Pares (objeto, siguiente espacio)
+    private int poolSize; // Espacios del pool usados alguna vez
+    private int free; // Primer espacio libre del pool
+    private GameObject[] objects; // Objeto por identificador
+    private int[] freeIds; // Identificadores liberados, se reutilizan primero
+    private int freeIdCount;
+    private int idCount; // Identificadores usados alguna vez
+
+    /**
+     * Constructor del almacenamiento vacío
+     */
+    OffHeapCellStore(int width, int height) {
+        this.width = width;
+        this.cellCount = width * height;
+        this.words = (cellCount + 63) >>> 6;
+        this.occupants = allocate(cellCount * 4L).asIntBuffer();
+        this.layers = allocate((long) LAYER_COUNT * words * 8).asLongBuffer();
+        this.objects = new GameObject[16];
+        this.freeIds = new int[16];
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void add(int x, int y, GameObject object, int index) {
+        int cell = y * width + x;
+        int id = acquireId(object);
+        int first = occupants.get(cell);
+        if (first == 0) {
+            occupants.put(cell, id + 1);
+        } else {
+            if (overflow == null) {
+                overflow = allocate(cellCount * 4L).asIntBuffer();
+            }
+            if (index == 0) {
+                occupants.put(cell, id + 1); // El primero pasa a encabezar el pool
+                int slot = allocateSlot(first - 1);
+                pool.put(2 * slot + 1, overflow.get(cell));
+                overflow.put(cell, slot + 1);
+            } else {
+                int slot = allocateSlot(id);
+                int head = overflow.get(cell);
+                if (head == 0 || index == 1) {
+                    pool.put(2 * slot + 1, head);
+                    overflow.put(cell, slot + 1);
+                } else {
+                    int previous = head;
+                    for (int i = 2; (index < 0 || i < index) && nextOf(previous - 1) != 0; i++) {
+                        previous = nextOf(previous - 1);
+                    }
+                    pool.put(2 * slot + 1, nextOf(previous - 1));
+                    pool.put(2 * (previous - 1) + 1, slot + 1);
+                }
+            }
+        }
+        markLayers(cell, Board.layerMaskOf(object));
+    }
+
+    @Override
+    public int remove(int x, int y, GameObject object) {
+        int cell = y * width + x;
+        int first = occupants.get(cell);
+        if (first == 0) {
+            return -1;
+        }
+        int head = overflow == null ? 0 : overflow.get(cell);
+        if (objects[first - 1] == object) {
+            releaseId(first - 1);
+            if (head != 0) {
+                occupants.put(cell, idOf(head - 1) + 1);
+                overflow.put(cell, nextOf(head - 1));
+                releaseSlot(head - 1);
+            } else {
+                occupants.put(cell, 0);
+            }
+            refreshLayers(cell);
+            return 0;
+        }
+
+        int previous = 0;
+        int index = 1;
+        for (int slot = head; slot != 0; slot = nextOf(slot - 1)) {
+            int id = idOf(slot - 1);
+            if (objects[id] == object) {
+                if (previous == 0) {
+                    overflow.put(cell, nextOf(slot - 1));
+                } else {
+                    pool.put(2 * (previous - 1) + 1, nextOf(slot - 1));
+                }
+                releaseSlot(slot - 1);
+                releaseId(id);
+                refreshLayers(cell);
+                return index;
+            }
+            previous = slot;
+            index++;
+        }
+        return -1;
+    }
+
+    @Override
+    public int count(int x, int y) {
+        int cell = y * width + x;
+        if (occupants.get(cell) == 0) {
+            return 0;
+        }
+        int count = 1;
+        for (int slot = overflowHead(cell); slot != 0; slot = nextOf(slot - 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void copyTo(int x, int y, GameObject[] target) {
+        int cell = y * width + x;
+        int first = occupants.get(cell);
+        if (first == 0) {
+            return;
+        }
+        target[0] = objects[first - 1];
+        int i = 1;
+        for (int slot = overflowHead(cell); slot != 0; slot = nextOf(slot - 1)) {
+            target[i++] = objects[idOf(slot - 1)];
+        }
+    }
+
+    @Override
+    public void addTo(int x, int y, List<GameObject> target) {
+        addCellTo(y * width + x, target);
+    }
+
+    @Override
+    public void addAllTo(List<GameObject> target) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            addCellTo(cell, target);
+        }
+    }
+
+    @Override
+    public boolean hasLayer(int layer, int x, int y) {
+        int cell = y * width + x;
+        return (layers.get(layer * words + (cell >>> 6)) & (1L << cell)) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * El orden es por filas, igual que los índices empaquetados.
+     */
+    @Override
+    public void forEachCellWith(int layer, int anyOf, IntConsumer action) {
+        for (int word = 0; word < words; word++) {
+            long bits = layers.get(layer * words + word);
+            if (bits == 0) {
+                continue;
+            }
+            long others = 0;
+            for (int other = 0; other < LAYER_COUNT; other++) {
+                if ((anyOf & (1 << other)) != 0) {
+                    others |= layers.get(other * words + word);
+                }
+            }
+            bits &= others;
+            while (bits != 0) {
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public long getChangeStamp(int x, int y) {
+        return changedAt == null ? 0 : changedAt.get(y * width + x);
+    }
+
+    @Override
+    public void setChangeStamp(int x, int y, long stamp) {
+        if (changedAt == null) {
+            changedAt = allocate(cellCount * 8L).asLongBuffer();
+        }
+        changedAt.put(y * width + x, stamp);
+    }
+
+    private void addCellTo(int cell, List<GameObject> target) {
+        int first = occupants.get(cell);
+        if (first == 0) {
+            return;
+        }
+        target.add(objects[first - 1]);
+        for (int slot = overflowHead(cell); slot != 0; slot = nextOf(slot - 1)) {
+            target.add(objects[idOf(slot - 1)]);
+        }
+    }
+
+    private int overflowHead(int cell) {
+        return overflow == null ? 0 : overflow.get(cell);
+    }
+
+    private int idOf(int slot) {
+        return pool.get(2 * slot);
+    }
+
+    private int nextOf(int slot) {
+        return pool.get(2 * slot + 1);
+    }
+
+    /**
+     * Toma un espacio del pool para un identificador, creciendo el pool si hace falta
+     */
+    private int allocateSlot(int id) {
+        int slot;
+        if (free != 0) {
+            slot = free - 1;
+            free = nextOf(slot);
+        } else {
+            if (pool == null || 2 * (poolSize + 1) > pool.capacity()) {
+                IntBuffer grown = allocate(Math.max(16, poolSize * 4) * 4L).asIntBuffer();
+                if (pool != null) {
+                    pool.clear();
+                    grown.put(pool);
+                    grown.clear();
+                }
+                pool = grown;
+            }
+            slot = poolSize++;
+        }
+        pool.put(2 * slot, id);
+        pool.put(2 * slot + 1, 0);
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        pool.put(2 * slot + 1, free);
+        free = slot + 1;
+    }
+
+    /**
+     * Asigna un identificador a un objeto que entra al almacenamiento
+     */
+    private int acquireId(GameObject object) {
+        int id;
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        } else {
+            if (idCount == objects.length) {
+                objects = Arrays.copyOf(objects, idCount * 2);
+            }
+            id = idCount++;
+        }
+        objects[id] = object;
+        return id;
+    }
+
+    private void releaseId(int id) {
+        objects[id] = null;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * Enciende en una celda los bits de las capas indicadas en la máscara
+     */
+    private void markLayers(int cell, int mask) {
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            if ((mask & (1 << layer)) != 0) {
+                int index = layer * words + (cell >>> 6);
+                layers.put(index, layers.get(index) | (1L << cell));
+            }
+        }
+    }
+
+    /**
+     * Recalcula las capas de una celda a partir de los objetos que quedan en ella
+     */
+    private void refreshLayers(int cell) {
+        int mask = 0;
+        int first = occupants.get(cell);
+        if (first != 0) {
+            mask = Board.layerMaskOf(objects[first - 1]);
+            for (int slot = overflowHead(cell); slot != 0; slot = nextOf(slot - 1)) {
+                mask |= Board.layerMaskOf(objects[idOf(slot - 1)]);
+            }
+        }
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            int index = layer * words + (cell >>> 6);
+            long bit = 1L << cell;
+            layers.put(index, (mask & (1 << layer)) != 0 ? layers.get(index) | bit : layers.get(index) & ~bit);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package domain;
+
+import java.util.Arrays;
+
+/**
+ * Planificador A* para enemigos que pueden romper hielo.
+ * Atravesar un bloque de hielo cuesta más que una celda libre, y el camino
+ * calculado se conserva entre ticks hasta que cambie alguna de sus celdas.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class PathPlanner {
+    public static final int STEP_COST = 1;
+    public static final int ICE_COST = 3;
+    private static final int MAX_EXTENSIONS = 8;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int[] path; // Celdas del camino, la primera es el origen
+    private int pathLength;
+    private int pathIndex; // Posición del enemigo dentro del camino
+    private int extensions; // Pasos agregados al final desde el último cálculo
+    private long plannedAt;
+    private Board plannedBoard;
+
+    private int[] gScore;
+    private int[] cameFrom;
+    private int[] seen; // Marca de búsqueda por celda, evita limpiar los arreglos
+    private int searchId;
+    private long[] heap;
+    private int heapSize;
+
+    /**
+     * Constructor del planificador
+     */
+    public PathPlanner() {
+        this.path = new int[16];
+        this.pathLength = 0;
+        this.pathIndex = 0;
+        this.heap = new long[16];
+    }
+
+    /**
+     * Obtiene la siguiente dirección hacia el objetivo, reutilizando el camino guardado
+     * @param board El tablero actual
+     * @param from Celda actual del enemigo
+     * @param target Celda objetivo
+     * @return La dirección a seguir o null si no hay camino
+     */
+    public Direction nextDirection(Board board, int from, int target) {
+        if (from < 0 || target < 0) {
+            return null;
+        }
+        if (!followCachedPath(board, from, target) && !plan(board, from, target)) {
+            return null;
+        }
+        if (pathIndex + 1 >= pathLength) {
+            return null; // Ya está sobre el objetivo
+        }
+        return directionBetween(board, from, path[pathIndex + 1]);
+    }
+
+    /**
+     * Indica si hay un camino guardado
+     */
+    public boolean hasPath() {
+        return pathLength > 0;
+    }
+
+    /**
+     * Descarta el camino guardado
+     */
+    public void invalidate() {
+        pathLength = 0;
+        pathIndex = 0;
+    }
+
+    /**
+     * Intenta seguir usando el camino guardado
+     * @return true si el camino sigue siendo válido para la posición y el objetivo
+     */
+    private boolean followCachedPath(Board board, int from, int target) {
+        if (pathLength == 0 || plannedBoard != board) {
+            return false;
+        }
+
+        // Ubicar al enemigo: sigue en su celda o avanzó un paso
+        if (path[pathIndex] != from) {
+            if (pathIndex + 1 < pathLength && path[pathIndex + 1] == from) {
+                pathIndex++;
+            } else {
+                return false;
+            }
+        }
+
+        // Ajustar el final si el objetivo se movió una celda
+        int goal = path[pathLength - 1];
+        if (goal != target) {
+            if (pathLength - 2 > pathIndex && path[pathLength - 2] == target) {
+                pathLength--;
+            } else if (extensions < MAX_EXTENSIONS && isAdjacent(board, goal, target) && isWalkable(board, target)) {
+                append(target);
+                extensions++;
+            } else {
+                return false;
+            }
+        }
+
+        for (int i = pathIndex + 1; i < pathLength; i++) {
+            if (board.getCellChangeStamp(path[i]) > plannedAt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calcula un camino nuevo con A*
+     * @return true si se encontró camino
+     */
+    private boolean plan(Board board, int from, int target) {
+        invalidate();
+        ensureScratch(board);
+        searchId++;
+        heapSize = 0;
+
+        gScore[from] = 0;
+        cameFrom[from] = -1;
+        seen[from] = searchId;
+        push(heuristic(board, from, target), from);
+
+        while (heapSize > 0) {
+            long entry = pop();
+            int cell = (int) entry;
+            int f = (int) (entry >>> 32);
+            if (f > gScore[cell] + heuristic(board, cell, target)) {
+                continue; // Entrada obsoleta
+            }
+            if (cell == target) {
+                rebuildPath(cell);
+                plannedAt = board.getChangeCount();
+                plannedBoard = board;
+                extensions = 0;
+                return true;
+            }
+
+            for (Direction direction : DIRECTIONS) {
+                int neighbor = board.getNeighbor(cell, direction);
+                if (neighbor < 0 || !isWalkable(board, neighbor)) {
+                    continue;
+                }
+                int cost = gScore[cell] + (board.hasIceBlockAt(neighbor) ? ICE_COST : STEP_COST);
+                if (seen[neighbor] != searchId || cost < gScore[neighbor]) {
+                    seen[neighbor] = searchId;
+                    gScore[neighbor] = cost;
+                    cameFrom[neighbor] = cell;
+                    push(cost + heuristic(board, neighbor, target), neighbor);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reconstruye el camino desde el objetivo hacia el origen
+     */
+    private void rebuildPath(int goal) {
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = cameFrom[cell]) {
+            length++;
+        }
+        if (path.length < length) {
+            path = new int[Math.max(length, path.length * 2)];
+        }
+        int i = length;
+        for (int cell = goal; cell != -1; cell = cameFrom[cell]) {
+            path[--i] = cell;
+        }
+        pathLength = length;
+        pathIndex = 0;
+    }
+
+    /**
+     * Agrega una celda al final del camino
+     */
+    private void append(int cell) {
+        if (pathLength == path.length) {
+            path = Arrays.copyOf(path, pathLength * 2);
+        }
+        path[pathLength++] = cell;
+    }
+
+    /**
+     * Prepara los arreglos de búsqueda para el tamaño del tablero
+     */
+    private void ensureScratch(Board board) {
+        int cells = board.getWidth() * board.getHeight();
+        if (gScore == null || gScore.length != cells) {
+            gScore = new int[cells];
+            cameFrom = new int[cells];
+            seen = new int[cells];
+            searchId = 0;
+        }
+    }
+
+    private static int heuristic(Board board, int from, int to) {
+        Position a = board.getPosition(from);
+        Position b = board.getPosition(to);
+        return a.distanceTo(b) * STEP_COST;
+    }
+
+    private static boolean isWalkable(Board board, int cell) {
+        return board.hasIceBlockAt(cell) || !board.isSolidAt(cell);
+    }
+
+    private static boolean isAdjacent(Board board, int a, int b) {
+        return directionBetween(board, a, b) != null;
+    }
+
+    private static Direction directionBetween(Board board, int from, int to) {
+        for (Direction direction : DIRECTIONS) {
+            if (board.getNeighbor(from, direction) == to) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    private void push(int priority, int cell) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long entry = ((long) priority << 32) | cell;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
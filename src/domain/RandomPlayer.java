@@ -0,0 +1,45 @@
+package domain;
+
+import java.util.SplittableRandom;
+
+/**
+ * Jugador de máquina que se mueve al azar con una semilla fija.
+ * Tiende a mantener su dirección y de vez en cuando crea o rompe hielo.
+ * Sirve como referencia para las simulaciones por lotes.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class RandomPlayer implements MachinePlayer {
+    private static final GameAction[] MOVES = {
+        GameAction.MOVE_NORTH, GameAction.MOVE_SOUTH, GameAction.MOVE_EAST, GameAction.MOVE_WEST
+    };
+    
+    private final SplittableRandom random;
+    private GameAction lastMove;
+    
+    /**
+     * Constructor del jugador aleatorio
+     * @param seed Semilla del generador de números aleatorios
+     */
+    public RandomPlayer(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.lastMove = MOVES[random.nextInt(MOVES.length)];
+    }
+    
+    @Override
+    public GameAction chooseAction(BadDopoCream game, IceCream iceCream) {
+        int roll = random.nextInt(100);
+        if (roll < 5) {
+            return GameAction.CREATE_ICE;
+        }
+        if (roll < 10) {
+            return GameAction.BREAK_ICE;
+        }
+        if (roll < 40) {
+            lastMove = MOVES[random.nextInt(MOVES.length)];
+        }
+        return lastMove;
+    }
+}
@@ -0,0 +1,109 @@
+package domain;
+
+/**
+ * Reproduce una partida grabada en un InputLog volviendo a simularla sin interfaz.
+ * Crea un juego con el mismo nivel y semilla, y aplica cada entrada en el
+ * mismo tick lógico en que se registró. Puede reproducir a velocidad real,
+ * a un múltiplo de ella o tan rápido como permita el procesador.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class ReplayPlayer {
+    public static final int MAX_SPEED = 0;
+    
+    private final InputLog log;
+    private final BadDopoCream game;
+    private int nextInput;
+    
+    /**
+     * Constructor del reproductor. Deja el juego listo en el tick 0.
+     * @param log Registro de la partida a reproducir
+     * @throws BadDopoCreamException Si el nivel del registro no existe
+     */
+    public ReplayPlayer(InputLog log) throws BadDopoCreamException {
+        this.log = log;
+        this.game = new BadDopoCream();
+        this.nextInput = 0;
+        
+        game.startGame(log.getLevelIndex(), log.getSeed());
+        if (game.getCurrentLevel() == null) {
+            throw new BadDopoCreamException(BadDopoCreamException.LEVEL_NOT_FOUND);
+        }
+    }
+    
+    /**
+     * Obtiene el juego que se está reproduciendo
+     */
+    public BadDopoCream getGame() {
+        return game;
+    }
+    
+    /**
+     * Indica si ya se reprodujo toda la partida
+     */
+    public boolean isFinished() {
+        return nextInput >= log.size() && game.getTickCount() >= log.getEndTick();
+    }
+    
+    /**
+     * Reproduce la partida completa
+     * @param speed Múltiplo de la velocidad real (1, 10, ...) o MAX_SPEED
+     * @return El juego en su estado final
+     * @throws InterruptedException Si se interrumpe el hilo durante la reproducción
+     */
+    public BadDopoCream play(int speed) throws InterruptedException {
+        long tickNanos = speed > 0 ? BadDopoCream.TICK_MILLIS * 1_000_000L / speed : 0;
+        long deadline = System.nanoTime();
+        
+        while (!isFinished()) {
+            long before = game.getTickCount();
+            advanceTo(before + 1);
+            boolean stalled = game.getTickCount() == before;
+            if (stalled && (nextInput >= log.size() || log.getTick(nextInput) > before)) {
+                break; // El juego terminó o quedó en pausa sin más entradas
+            }
+            
+            if (tickNanos > 0) {
+                deadline += tickNanos;
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+        }
+        return game;
+    }
+    
+    /**
+     * Avanza la reproducción hasta un tick lógico, aplicando las entradas en orden
+     * @param tick Tick lógico destino
+     */
+    public void advanceTo(long tick) {
+        while (true) {
+            applyInputsAt(game.getTickCount());
+            if (game.getTickCount() >= tick || game.step(1) == 0) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Aplica todas las entradas registradas para un tick
+     */
+    private void applyInputsAt(long tick) {
+        while (nextInput < log.size() && log.getTick(nextInput) <= tick) {
+            int code = log.getCode(nextInput);
+            if (code == InputLog.PAUSE) {
+                game.pause();
+            } else if (code == InputLog.RESUME) {
+                game.resume();
+            } else {
+                IceCream iceCream = game.getCurrentLevel().getBoard().getIceCreams().get(log.getPlayer(nextInput));
+                game.performAction(iceCream, GameAction.values()[code]);
+            }
+            nextInput++;
+        }
+    }
+}
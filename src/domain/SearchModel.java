@@ -0,0 +1,286 @@
+package domain;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Modelo de avance de un nivel para los jugadores de máquina que buscan
+ * sobre BoardState. Cada paso es la acción del helado seguida de un paso de
+ * cada enemigo, como en una actualización del nivel.
+ * Los enemigos con LinearMovement siguen de frente y al chocar giran al azar
+ * entre las direcciones libres; los de ChaseMovement dan el primer paso del
+ * camino más corto al helado más cercano, rodeando el hielo como su campo de
+ * distancias. No se modelan las oleadas de frutas siguientes.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+class SearchModel {
+    static final GameAction[] ACTIONS = {
+        GameAction.MOVE_NORTH, GameAction.MOVE_SOUTH, GameAction.MOVE_EAST, GameAction.MOVE_WEST,
+        GameAction.CREATE_ICE, GameAction.BREAK_ICE
+    };
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final double SCORE_SCALE = 200; // Puntos con los que la recompensa por puntaje se satura
+    private static final int CHASE_RADIUS = 20; // Alcance de la búsqueda de camino de los perseguidores
+
+    private final BoardState root;
+    private final int iceCreamId;
+    private final int rootScore;
+    private final int[] enemyIds;
+    private final boolean[] chases;
+    private final int[] fruitIds;
+
+    /**
+     * Construye el modelo del nivel en curso de un juego
+     * @param iceCream Helado controlado por el jugador
+     */
+    SearchModel(BadDopoCream game, IceCream iceCream) {
+        Level level = game.getCurrentLevel();
+        Board board = level.getBoard();
+        this.root = level.exportState();
+        this.iceCreamId = level.idOf(iceCream);
+        this.rootScore = root.getScore(iceCreamId);
+
+        List<Enemy> enemies = board.getEnemies();
+        this.enemyIds = new int[enemies.size()];
+        this.chases = new boolean[enemies.size()];
+        for (int i = 0; i < enemyIds.length; i++) {
+            enemyIds[i] = level.idOf(enemies.get(i));
+            chases[i] = enemies.get(i).movementStrategy instanceof ChaseMovement;
+        }
+        List<Fruit> fruits = board.getFruits();
+        this.fruitIds = new int[fruits.size()];
+        for (int i = 0; i < fruitIds.length; i++) {
+            fruitIds[i] = level.idOf(fruits.get(i));
+        }
+    }
+
+    BoardState getRoot() {
+        return root;
+    }
+
+    int getIceCreamId() {
+        return iceCreamId;
+    }
+
+    int getEnemyCount() {
+        return enemyIds.length;
+    }
+
+    /**
+     * Indica si el helado fue eliminado, por pisar un peligro o porque un enemigo lo alcanzó
+     */
+    boolean isLost(BoardState state) {
+        return !state.isAlive(iceCreamId) || state.isDangerousAt(state.getCell(iceCreamId));
+    }
+
+    /**
+     * Avanza un paso completo eligiendo al azar los giros de los enemigos
+     */
+    BoardState advance(BoardState state, GameAction action, SplittableRandom random, Scratch scratch) {
+        BoardState next = state.apply(iceCreamId, action);
+        Direction[] options = scratch.options;
+        for (int enemy = 0; enemy < enemyIds.length && !isLost(next); enemy++) {
+            int count = getOptions(next, enemy, scratch);
+            if (count > 0) {
+                next = moveEnemy(next, enemy, options[count == 1 ? 0 : random.nextInt(count)]);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Calcula las direcciones que puede tomar un enemigo en este paso y las
+     * deja al inicio de las opciones de la memoria de trabajo
+     * @return Cantidad de direcciones, todas igual de probables; 0 si no puede moverse
+     */
+    int getOptions(BoardState state, int enemy, Scratch scratch) {
+        Direction[] options = scratch.options;
+        int id = enemyIds[enemy];
+        if (!state.isPresent(id)) {
+            return 0;
+        }
+        int cell = state.getCell(id);
+        if (chases[enemy]) {
+            Direction direction = chaseDirection(state, cell, scratch);
+            if (direction == null) {
+                return 0;
+            }
+            options[0] = direction;
+            return 1;
+        }
+
+        Direction facing = state.getFacing(id);
+        if (facing != null && isFree(state, state.getNeighbor(cell, facing))) {
+            options[0] = facing;
+            return 1;
+        }
+        int count = 0;
+        for (Direction direction : DIRECTIONS) {
+            if (isFree(state, state.getNeighbor(cell, direction))) {
+                options[count++] = direction;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Mueve un enemigo un paso en una dirección, o solo lo gira si está bloqueado
+     */
+    BoardState moveEnemy(BoardState state, int enemy, Direction direction) {
+        int id = enemyIds[enemy];
+        BoardState next = state.turnEntity(id, direction);
+        int target = next.getNeighbor(next.getCell(id), direction);
+        return isFree(next, target) ? next.moveEntity(id, target) : next;
+    }
+
+    /**
+     * Evalúa el final de una simulación entre 0 y 1. Perder el helado vale
+     * menos de 0.3, y menos cuanto antes ocurra; sobrevivir vale al menos 0.5,
+     * más con más puntos ganados y una fruta pendiente más cerca.
+     * @param survived Fracción de los pasos simulados que el helado sobrevivió
+     */
+    double evaluate(BoardState state, double survived) {
+        if (isLost(state)) {
+            return 0.3 * survived;
+        }
+        double gained = Math.min(1, (state.getScore(iceCreamId) - rootScore) / SCORE_SCALE);
+        int cell = state.getCell(iceCreamId);
+        int nearest = Integer.MAX_VALUE;
+        for (int id : fruitIds) {
+            if (state.isPresent(id) && !state.isCollected(id)) {
+                nearest = Math.min(nearest, distance(state, cell, state.getCell(id)));
+            }
+        }
+        double closeness = nearest == Integer.MAX_VALUE ? 1 : 1.0 / (1 + nearest);
+        return 0.5 + 0.4 * gained + 0.1 * closeness;
+    }
+
+    /**
+     * Dirección del primer paso del camino más corto a un helado vivo, buscado
+     * en anchura dentro de una ventana alrededor del perseguidor
+     * @return La dirección, o la del paso en línea recta si no hay camino en la ventana
+     */
+    private Direction chaseDirection(BoardState state, int from, Scratch scratch) {
+        int width = state.getWidth();
+        int originX = from % width - CHASE_RADIUS;
+        int originY = from / width - CHASE_RADIUS;
+        int stamp = ++scratch.stamp;
+        int[] seen = scratch.seen;
+        int[] queue = scratch.queue;
+        byte[] firstStep = scratch.firstStep;
+        seen[Scratch.SIDE * CHASE_RADIUS + CHASE_RADIUS] = stamp;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cell = queue[head];
+            int local = (cell / width - originY) * Scratch.SIDE + cell % width - originX;
+            for (Direction direction : DIRECTIONS) {
+                int next = state.getNeighbor(cell, direction);
+                if (next < 0) {
+                    continue;
+                }
+                int x = next % width - originX;
+                int y = next / width - originY;
+                if (x < 0 || y < 0 || x >= Scratch.SIDE || y >= Scratch.SIDE) {
+                    continue;
+                }
+                int nextLocal = y * Scratch.SIDE + x;
+                if (seen[nextLocal] == stamp || state.isSolidAt(next)) {
+                    continue;
+                }
+                seen[nextLocal] = stamp;
+                firstStep[nextLocal] = head == 0 ? (byte) direction.ordinal() : firstStep[local];
+                if (hasLiveIceCreamAt(state, next)) {
+                    return DIRECTIONS[firstStep[nextLocal]];
+                }
+                queue[tail++] = next;
+            }
+            head++;
+        }
+        return straightDirection(state, from);
+    }
+
+    private static boolean hasLiveIceCreamAt(BoardState state, int cell) {
+        for (int i = 0; i < state.getIceCreamCount(); i++) {
+            int id = state.getIceCreamId(i);
+            if (state.isPresent(id) && state.isAlive(id) && state.getCell(id) == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dirección del paso que más acerca en línea recta al helado vivo más
+     * cercano, como el respaldo de ChaseMovement cuando no hay camino
+     */
+    private static Direction straightDirection(BoardState state, int from) {
+        int target = -1;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < state.getIceCreamCount(); i++) {
+            int id = state.getIceCreamId(i);
+            if (state.isPresent(id) && state.isAlive(id)) {
+                int distance = distance(state, from, state.getCell(id));
+                if (distance < best) {
+                    best = distance;
+                    target = state.getCell(id);
+                }
+            }
+        }
+        if (target < 0) {
+            return null;
+        }
+
+        int width = state.getWidth();
+        int dx = target % width - from % width;
+        int dy = target / width - from / width;
+        Direction horizontal = dx > 0 ? Direction.EAST : Direction.WEST;
+        Direction vertical = dy > 0 ? Direction.SOUTH : Direction.NORTH;
+        Direction primary = Math.abs(dx) > Math.abs(dy) ? horizontal : vertical;
+        Direction secondary = Math.abs(dx) > Math.abs(dy) ? vertical : horizontal;
+        if (isFree(state, state.getNeighbor(from, primary))) {
+            return primary;
+        }
+        if (isFree(state, state.getNeighbor(from, secondary))) {
+            return secondary;
+        }
+        for (Direction direction : DIRECTIONS) {
+            if (isFree(state, state.getNeighbor(from, direction))) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Memoria de trabajo de las búsquedas de camino; cada hilo usa la suya
+     */
+    static class Scratch {
+        private static final int SIDE = 2 * CHASE_RADIUS + 1;
+        private final int[] seen = new int[SIDE * SIDE]; // Marca de la última búsqueda que vio cada celda
+        private final int[] queue = new int[SIDE * SIDE];
+        private final byte[] firstStep = new byte[SIDE * SIDE]; // Dirección inicial del camino a cada celda
+        private final Direction[] options = new Direction[DIRECTIONS.length];
+        private int stamp;
+
+        /**
+         * Obtiene las direcciones dejadas por getOptions
+         */
+        Direction[] getOptions() {
+            return options;
+        }
+    }
+
+    private static boolean isFree(BoardState state, int cell) {
+        return cell >= 0 && !state.isSolidAt(cell);
+    }
+
+    private static int distance(BoardState state, int from, int to) {
+        int width = state.getWidth();
+        return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+    }
+}
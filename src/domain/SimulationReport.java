@@ -0,0 +1,133 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte agregado de una simulación por lotes.
+ * Acumula victorias, tiempo hasta completar el nivel, puntajes y
+ * las posiciones donde murieron los helados.
+ * 
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class SimulationReport {
+    private final int levelIndex;
+    private int games;
+    private int wins;
+    private long ticksToComplete; // Suma de ticks de las partidas ganadas
+    private long totalScore;
+    private final Map<Position, Integer> deathPositions;
+    
+    /**
+     * Constructor de un reporte vacío
+     * @param levelIndex Índice del nivel simulado
+     */
+    public SimulationReport(int levelIndex) {
+        this.levelIndex = levelIndex;
+        this.deathPositions = new HashMap<>();
+    }
+    
+    /**
+     * Registra el resultado de una partida
+     * @param won Indica si se completó el nivel
+     * @param ticks Ticks lógicos que duró la partida
+     * @param score Puntaje obtenido
+     * @param deaths Posiciones donde murieron helados
+     */
+    void addGame(boolean won, long ticks, int score, List<Position> deaths) {
+        games++;
+        if (won) {
+            wins++;
+            ticksToComplete += ticks;
+        }
+        totalScore += score;
+        for (Position death : deaths) {
+            deathPositions.merge(death, 1, Integer::sum);
+        }
+    }
+    
+    /**
+     * Suma a este reporte los resultados de otro
+     */
+    void merge(SimulationReport other) {
+        games += other.games;
+        wins += other.wins;
+        ticksToComplete += other.ticksToComplete;
+        totalScore += other.totalScore;
+        other.deathPositions.forEach((position, count) -> deathPositions.merge(position, count, Integer::sum));
+    }
+    
+    /**
+     * Obtiene el índice del nivel simulado
+     */
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+    
+    /**
+     * Obtiene la cantidad de partidas jugadas
+     */
+    public int getGames() {
+        return games;
+    }
+    
+    /**
+     * Obtiene la cantidad de partidas ganadas
+     */
+    public int getWins() {
+        return wins;
+    }
+    
+    /**
+     * Obtiene la proporción de partidas ganadas, entre 0 y 1
+     */
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+    
+    /**
+     * Obtiene el tiempo promedio en segundos para completar el nivel, solo partidas ganadas
+     */
+    public double getAverageSecondsToComplete() {
+        if (wins == 0) {
+            return 0;
+        }
+        return (double) ticksToComplete / wins / BadDopoCream.TICKS_PER_SECOND;
+    }
+    
+    /**
+     * Obtiene el puntaje promedio por partida
+     */
+    public double getAverageScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+    
+    /**
+     * Obtiene cuántas veces murió un helado en cada posición
+     */
+    public Map<Position, Integer> getDeathPositions() {
+        return Collections.unmodifiableMap(deathPositions);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Nivel %d: %d partidas%n", levelIndex + 1, games));
+        report.append(String.format("  Victorias: %d (%.1f%%)%n", wins, getWinRate() * 100));
+        report.append(String.format("  Tiempo promedio para completar: %.1f s%n", getAverageSecondsToComplete()));
+        report.append(String.format("  Puntaje promedio: %.1f%n", getAverageScore()));
+        
+        List<Map.Entry<Position, Integer>> deaths = new ArrayList<>(deathPositions.entrySet());
+        deaths.sort(Map.Entry.<Position, Integer>comparingByValue().reversed());
+        report.append("  Posiciones con más muertes:").append(System.lineSeparator());
+        for (int i = 0; i < Math.min(10, deaths.size()); i++) {
+            report.append(String.format("    %s: %d%n", deaths.get(i).getKey(), deaths.get(i).getValue()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Planificador de actualizaciones de un nivel.
+ * Solo actualiza en cada tick a los objetos activos (los que se mueven solos).
+ * Los objetos estáticos duermen. Así el costo de un tick depende de los
+ * objetos en movimiento y no del tamaño del tablero.
+ *
+ * En modo de dos fases los enemigos primero deciden su movimiento en paralelo,
+ * leyendo el tablero sin modificarlo, y luego se aplican las intenciones en
+ * orden: si varios quieren entrar a la misma celda, entra el que llegó primero
+ * al tablero y los demás solo giran. El resultado no depende de los hilos.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class TickScheduler implements GameEventListener {
+    private static final int ENEMIES_PER_TASK = 32; // Tamaño mínimo de un bloque de decisiones
+    
+    private final Board board;
+    private final List<GameObject> active; // En orden de llegada al tablero
+    private boolean twoPhase;
+    private Direction[] intents; // Dirección decidida por cada enemigo
+    private int[] targets; // Celda destino de cada enemigo, -1 si no se mueve
+    private long[] claims; // Celda destino y orden del enemigo, para resolver conflictos
+
+    /**
+     * Constructor del planificador. Se suscribe a los eventos del tablero.
+     * @param board Tablero cuyos objetos se actualizan
+     */
+    public TickScheduler(Board board) {
+        this.board = board;
+        this.active = new ArrayList<>();
+        this.twoPhase = false;
+        this.intents = new Direction[0];
+        this.targets = new int[0];
+        this.claims = new long[0];
+        board.addListener(this);
+    }
+
+    /**
+     * Actualiza los objetos activos
+     */
+    public void tick() {
+        if (twoPhase) {
+            updateEnemiesInTwoPhases();
+            for (int i = 0; i < active.size(); i++) {
+                if (!(active.get(i) instanceof Enemy)) {
+                    active.get(i).update(board);
+                }
+            }
+        } else {
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).update(board);
+            }
+        }
+    }
+
+    /**
+     * Activa o desactiva la actualización de enemigos en dos fases
+     */
+    public void setTwoPhase(boolean twoPhase) {
+        this.twoPhase = twoPhase;
+    }
+    
+    /**
+     * Indica si los enemigos se actualizan en dos fases
+     */
+    public boolean isTwoPhase() {
+        return twoPhase;
+    }
+    
+    /**
+     * Decide en paralelo y aplica en orden los movimientos de los enemigos
+     */
+    private void updateEnemiesInTwoPhases() {
+        List<Enemy> enemies = board.getEnemies();
+        int count = enemies.size();
+        if (count == 0) {
+            return;
+        }
+        if (intents.length < count) {
+            intents = new Direction[count];
+            targets = new int[count];
+            claims = new long[count];
+        }
+        
+        // Fase 1: decisiones en paralelo sobre el tablero sin modificar
+        board.prepareConcurrentReads();
+        Enemy[] snapshot = enemies.toArray(new Enemy[count]);
+        new DecideRange(snapshot, 0, count).invoke();
+        
+        // Fase 2: conflictos resueltos por orden de llegada al tablero
+        int claimCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (targets[i] >= 0) {
+                claims[claimCount++] = ((long) targets[i] << 32) | i;
+            }
+        }
+        Arrays.sort(claims, 0, claimCount);
+        for (int i = 1; i < claimCount; i++) {
+            if ((claims[i] >>> 32) == (claims[i - 1] >>> 32)) {
+                targets[(int) claims[i]] = -1; // Otro enemigo ya reclamó la celda
+            }
+        }
+        
+        for (int i = 0; i < count; i++) {
+            Enemy enemy = snapshot[i];
+            board.turnObject(enemy, intents[i]);
+            if (targets[i] >= 0) {
+                board.moveObject(enemy, board.getPosition(targets[i]));
+            }
+            intents[i] = null;
+        }
+    }
+    
+    /**
+     * Tarea fork-join que decide los movimientos de un rango de enemigos
+     */
+    private class DecideRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final Enemy[] enemies;
+        private final int from;
+        private final int to;
+        
+        DecideRange(Enemy[] enemies, int from, int to) {
+            this.enemies = enemies;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= ENEMIES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Direction direction = enemies[i].decideDirection(board);
+                    intents[i] = direction;
+                    targets[i] = enemies[i].getTargetCell(direction, board);
+                }
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new DecideRange(enemies, from, middle), new DecideRange(enemies, middle, to));
+        }
+    }
+    
+    /**
+     * Obtiene la cantidad de objetos que se actualizan en cada tick
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    @Override
+    public void objectAdded(GameObject object) {
+        if (object.isActive()) {
+            active.add(object);
+        }
+    }
+
+    @Override
+    public void objectRemoved(GameObject object) {
+        if (object.isActive()) {
+            active.remove(object);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package domain;
 
+import java.util.SplittableRandom;
+
 /**
  * Esta clase representa al Troll, enemigo que se mueve en línea recta y 
  * cambia de dirección al chocar.
@@ -18,6 +20,15 @@ public class Troll extends Enemy {
         super(position, new LinearMovement());
     }
     
+    /**
+     * Constructor de la clase Troll con un generador de giros propio.
+     * @param position Posición inicial del troll en el tablero.
+     * @param random Generador de números aleatorios del troll.
+     */
+    public Troll(Position position, SplittableRandom random) {
+        super(position, new LinearMovement(random));
+    }
+    
     @Override
     public String getType() {
         return "TROLL";
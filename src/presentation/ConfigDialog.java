@@ -1,7 +1,10 @@
 package presentation;
 
 import domain.BadDopoCream;
+import domain.ExpectimaxPlayer;
 import domain.LevelTemplate;
+import domain.MachinePlayer;
+import domain.MonteCarloPlayer;
 import java.awt.*;
 import java.util.List;
 import javax.swing.*;
@@ -15,7 +18,11 @@ import javax.swing.*;
  * @version 1.0
  */
 public class ConfigDialog extends JDialog {
+    private static final String[] PLAYERS = {"Teclado", "Máquina (expectimax)", "Máquina (Monte Carlo)"};
+    private static final long MACHINE_TIME_BUDGET = 150; // Milisegundos, la interfaz sigue respondiendo
+    
     private JComboBox<String> levelPresetCombo;
+    private JComboBox<String> playerCombo;
     private int selectedLevelIndex;
     private boolean accepted;
     private BadDopoCream game;
@@ -71,9 +78,18 @@ public class ConfigDialog extends JDialog {
         levelPresetCombo = new JComboBox<>(levelNames);
         mainPanel.add(levelPresetCombo, gbc);
         
-        // Descripción del nivel
+        // Selector de quién controla al helado
         gbc.gridx = 0;
         gbc.gridy = 2;
+        mainPanel.add(new JLabel("Jugador:"), gbc);
+        
+        gbc.gridx = 1;
+        playerCombo = new JComboBox<>(PLAYERS);
+        mainPanel.add(playerCombo, gbc);
+        
+        // Descripción del nivel
+        gbc.gridx = 0;
+        gbc.gridy = 3;
         gbc.gridwidth = 2;
         JTextArea descriptionArea = new JTextArea(10, 30);
         descriptionArea.setEditable(false);
@@ -137,4 +153,17 @@ public class ConfigDialog extends JDialog {
         setVisible(true);
         return accepted ? selectedLevelIndex : -1;
     }
+    
+    /**
+     * Crea el jugador de máquina seleccionado
+     * @return El jugador, o null si se juega con el teclado
+     */
+    public MachinePlayer getMachinePlayer() {
+        return switch (playerCombo.getSelectedIndex()) {
+            case 1 -> new ExpectimaxPlayer(MACHINE_TIME_BUDGET);
+            case 2 -> new MonteCarloPlayer(System.nanoTime(), MACHINE_TIME_BUDGET,
+                                           Runtime.getRuntime().availableProcessors());
+            default -> null;
+        };
+    }
 }
@@ -3,6 +3,8 @@ package presentation;
 import domain.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import javax.swing.*;
 
 /**
@@ -20,6 +22,9 @@ public class GameController implements KeyListener {
     private MainWindow mainWindow;
     private Timer gameTimer;
     private IceCream playerIceCream;
+    private MachinePlayer machinePlayer; // Si no es null controla al helado en lugar del teclado
+    private long lastMachineUpdate; // Última actualización del nivel en la que decidió la máquina
+    private SwingWorker<GameAction, Void> machineTurn; // Decisión en curso fuera del EDT, null si no hay
     
     /**
      * Constructor del controlador
@@ -37,6 +42,14 @@ public class GameController implements KeyListener {
         this.infoPanel = infoPanel;
     }
     
+    /**
+     * Establece el jugador de máquina que controla al helado
+     * @param machinePlayer El jugador, o null para jugar con el teclado
+     */
+    public void setMachinePlayer(MachinePlayer machinePlayer) {
+        this.machinePlayer = machinePlayer;
+    }
+    
     /**
      * Inicia un nuevo juego con el nivel especificado
      * @param levelIndex Índice del nivel (0, 1, 2, etc.)
@@ -47,6 +60,8 @@ public class GameController implements KeyListener {
         if (!game.getCurrentLevel().getBoard().getIceCreams().isEmpty()) {
             playerIceCream = game.getCurrentLevel().getBoard().getIceCreams().get(0);
         }
+        lastMachineUpdate = -1;
+        machineTurn = null;
         
         startGameLoop();
         
@@ -64,6 +79,7 @@ public class GameController implements KeyListener {
         gameTimer = new Timer(100, e -> {
             if (game.getState() == GameState.PLAYING) {
                 game.update();
+                playMachineTurn();
                 updateView();
                 checkGameStatus();
             }
@@ -72,13 +88,67 @@ public class GameController implements KeyListener {
         gameTimer.start();
     }
     
+    /**
+     * Deja que el jugador de máquina actúe una vez por actualización del nivel.
+     * El estado se lee aquí, en el EDT; la búsqueda corre en un SwingWorker
+     * para no congelar la interfaz y su acción se aplica de vuelta en el EDT.
+     */
+    private void playMachineTurn() {
+        if (machinePlayer == null || playerIceCream == null || machineTurn != null
+                || game.getState() != GameState.PLAYING) {
+            return;
+        }
+        long update = game.getTickCount() / BadDopoCream.TICKS_PER_UPDATE;
+        if (update == lastMachineUpdate) {
+            return;
+        }
+        lastMachineUpdate = update;
+        
+        IceCream iceCream = playerIceCream;
+        Supplier<GameAction> decision = machinePlayer.prepareAction(game, iceCream);
+        machineTurn = new SwingWorker<>() {
+            @Override
+            protected GameAction doInBackground() {
+                return decision.get();
+            }
+            
+            @Override
+            protected void done() {
+                if (machineTurn != this) {
+                    return; // El nivel se reinició mientras decidía
+                }
+                machineTurn = null;
+                try {
+                    applyMachineAction(iceCream, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        machineTurn.execute();
+    }
+    
+    /**
+     * Aplica la acción decidida por la máquina si el helado sigue en juego
+     */
+    private void applyMachineAction(IceCream iceCream, GameAction action) {
+        if (game.getState() != GameState.PLAYING || iceCream != playerIceCream) {
+            return;
+        }
+        game.performAction(iceCream, action);
+        if (gamePanel != null) {
+            gamePanel.repaintCell(iceCream.getPosition()); // Girar o usar el hielo no mueve al helado
+        }
+        updateView();
+    }
+    
     /**
      * Actualiza la vista con el estado actual del juego
      */
     private void updateView() {
         if (gamePanel != null) {
+            // Los cambios del tablero llegan como eventos y repintan solo sus celdas
             gamePanel.setLevel(game.getCurrentLevel());
-            gamePanel.repaint();
         }
         
         if (infoPanel != null) {
@@ -146,6 +216,11 @@ public class GameController implements KeyListener {
      */
     public void restartLevel(int levelIndex) {
         game.restartLevel(levelIndex);
+        if (!game.getCurrentLevel().getBoard().getIceCreams().isEmpty()) {
+            playerIceCream = game.getCurrentLevel().getBoard().getIceCreams().get(0);
+        }
+        lastMachineUpdate = -1;
+        machineTurn = null;
         updateView();
     }
     
@@ -174,6 +249,9 @@ public class GameController implements KeyListener {
         if (game.getState() != GameState.PLAYING || playerIceCream == null) {
             return;
         }
+        if (machinePlayer != null && e.getKeyCode() != KeyEvent.VK_P) {
+            return; // El helado lo controla la máquina
+        }
         
         Direction direction = null;
         
@@ -201,6 +279,9 @@ public class GameController implements KeyListener {
         
         if (direction != null) {
             game.moveIceCream(playerIceCream, direction);
+            if (gamePanel != null) {
+                gamePanel.repaintCell(playerIceCream.getPosition()); // La dirección cambia aunque no se mueva
+            }
             updateView();
         }
     }
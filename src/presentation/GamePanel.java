@@ -24,6 +24,7 @@ public class GamePanel extends JPanel {
     private Map<String, Color> colorMap;
     private BufferedImage startScreenImage;
     private MainWindow mainWindow;
+    private final GameEventListener boardListener; // Repinta solo las celdas que cambian
     
     /**
      * Constructor del panel de juego
@@ -34,6 +35,28 @@ public class GamePanel extends JPanel {
         initializeColorMap();
         loadStartScreen();
         setupMouseListener();
+        boardListener = new GameEventListener() {
+            @Override
+            public void objectAdded(GameObject object) {
+                repaintCell(object.getPosition());
+            }
+            
+            @Override
+            public void objectRemoved(GameObject object) {
+                repaintCell(object.getPosition());
+            }
+            
+            @Override
+            public void objectMoved(GameObject object, Position from, Position to) {
+                repaintCell(from);
+                repaintCell(to);
+            }
+            
+            @Override
+            public void iceCreamEliminated(IceCream iceCream) {
+                repaintCell(iceCream.getPosition());
+            }
+        };
     }
     
     /**
@@ -132,7 +155,31 @@ public class GamePanel extends JPanel {
      * Establece el nivel a dibujar
      */
     public void setLevel(Level level) {
+        if (level == this.level) {
+            return;
+        }
+        if (this.level != null) {
+            this.level.getBoard().removeListener(boardListener);
+        }
         this.level = level;
+        if (level != null) {
+            level.getBoard().addListener(boardListener);
+        }
+        repaint();
+    }
+    
+    /**
+     * Marca para repintar solo el área de una celda del tablero
+     */
+    public void repaintCell(Position position) {
+        if (level == null) {
+            return;
+        }
+        Board board = level.getBoard();
+        int offsetX = (getWidth() - board.getWidth() * CELL_SIZE) / 2;
+        int offsetY = (getHeight() - board.getHeight() * CELL_SIZE) / 2;
+        repaint(offsetX + position.getX() * CELL_SIZE, offsetY + position.getY() * CELL_SIZE,
+                CELL_SIZE + 1, CELL_SIZE + 1);
     }
     
     @Override
@@ -156,9 +203,23 @@ public class GamePanel extends JPanel {
         // Dibujar grid de fondo
         drawGrid(g2d, board, offsetX, offsetY);
         
-        // Dibujar todos los objetos del tablero
-        for (GameObject obj : board.getAllObjects()) {
-            drawGameObject(g2d, obj, offsetX, offsetY);
+        // Dibujar los objetos por capas, de los registros del tablero
+        for (IceBlock iceBlock : board.getIceBlocks()) {
+            drawGameObject(g2d, iceBlock, offsetX, offsetY);
+        }
+        for (GameObject hazard : board.getDangerousObjects()) {
+            if (!(hazard instanceof Enemy)) {
+                drawGameObject(g2d, hazard, offsetX, offsetY);
+            }
+        }
+        for (Fruit fruit : board.getFruits()) {
+            drawGameObject(g2d, fruit, offsetX, offsetY);
+        }
+        for (Enemy enemy : board.getEnemies()) {
+            drawGameObject(g2d, enemy, offsetX, offsetY);
+        }
+        for (IceCream iceCream : board.getIceCreams()) {
+            drawGameObject(g2d, iceCream, offsetX, offsetY);
         }
     }
     
@@ -208,13 +269,21 @@ public class GamePanel extends JPanel {
     }
     
     /**
-     * Dibuja el grid del tablero
+     * Dibuja el grid del tablero, solo en el área visible
      */
     private void drawGrid(Graphics2D g2d, Board board, int offsetX, int offsetY) {
         g2d.setColor(new Color(200, 200, 200, 100));
         
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int fromX = Math.max(0, Math.floorDiv(clip.x - offsetX, CELL_SIZE) - 1);
+        int fromY = Math.max(0, Math.floorDiv(clip.y - offsetY, CELL_SIZE) - 1);
+        int toX = Math.min(board.getWidth(), Math.floorDiv(clip.x + clip.width - offsetX, CELL_SIZE) + 1);
+        int toY = Math.min(board.getHeight(), Math.floorDiv(clip.y + clip.height - offsetY, CELL_SIZE) + 1);
+        for (int x = fromX; x < toX; x++) {
+            for (int y = fromY; y < toY; y++) {
                 int px = offsetX + x * CELL_SIZE;
                 int py = offsetY + y * CELL_SIZE;
                 g2d.drawRect(px, py, CELL_SIZE, CELL_SIZE);
@@ -116,6 +116,7 @@ public class MainWindow extends JFrame {
         
         if (levelIndex >= 0) {
             currentLevelIndex = levelIndex;
+            controller.setMachinePlayer(dialog.getMachinePlayer());
             controller.startNewGame(levelIndex);
             gamePanel.requestFocusInWindow();
         }
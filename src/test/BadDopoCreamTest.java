@@ -4,6 +4,11 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import domain.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * Pruebas unitarias para la clase BadDopoCream.
@@ -468,6 +473,475 @@ public class BadDopoCreamTest {
         assertEquals(stateBefore, stateAfter);
     }
     
+    /**
+     * Prueba que step avanza el reloj lógico sin depender del tiempo real
+     */
+    @Test
+    public void testStepUsesLogicalClock() {
+        game.startGame(0);
+        int initialTime = game.getCurrentLevel().getTimeRemaining();
+        
+        int executed = game.step(5 * BadDopoCream.TICKS_PER_SECOND);
+        
+        assertEquals(5 * BadDopoCream.TICKS_PER_SECOND, executed);
+        assertEquals(5 * BadDopoCream.TICKS_PER_SECOND, game.getTickCount());
+        assertEquals(initialTime - 5, game.getCurrentLevel().getTimeRemaining());
+    }
+    
+    /**
+     * Prueba que step no avanza cuando el juego está en pausa
+     */
+    @Test
+    public void testStepWhenPaused() {
+        game.startGame(0);
+        game.pause();
+        
+        assertEquals(0, game.step(10));
+        assertEquals(0, game.getTickCount());
+    }
+    
+    /**
+     * Prueba que dos partidas con la misma semilla producen el mismo tablero
+     */
+    @Test
+    public void testSameSeedSameBoard() {
+        BadDopoCream other = new BadDopoCream();
+        game.startGame(2, 1234L);
+        other.startGame(2, 1234L);
+        
+        game.step(400);
+        other.step(400);
+        
+        assertEquals(1234L, game.getSeed());
+        assertEquals(describeBoard(game), describeBoard(other));
+    }
+    
+    /**
+     * Describe la posición y el tipo de todos los objetos del tablero
+     */
+    private String describeBoard(BadDopoCream session) {
+        StringBuilder description = new StringBuilder();
+        for (GameObject obj : session.getCurrentLevel().getBoard().getAllObjects()) {
+            description.append(obj.getType()).append(obj.getPosition()).append(';');
+        }
+        return description.toString();
+    }
+    
+    /**
+     * Prueba que el simulador por lotes juega todas las partidas pedidas
+     */
+    @Test
+    public void testBatchSimulation() throws BadDopoCreamException {
+        BatchSimulator simulator = new BatchSimulator(RandomPlayer::new, 2);
+        SimulationReport report = simulator.run(0, 8, 1L);
+        
+        assertEquals(8, report.getGames());
+        assertTrue(report.getWinRate() >= 0 && report.getWinRate() <= 1);
+    }
+    
+    /**
+     * Prueba que el simulador por lotes rechaza niveles inexistentes
+     */
+    @Test
+    public void testBatchSimulationInvalidLevel() {
+        BatchSimulator simulator = new BatchSimulator(RandomPlayer::new, 2);
+        try {
+            simulator.run(999, 8, 1L);
+            fail("Debió lanzar BadDopoCreamException");
+        } catch (BadDopoCreamException e) {
+            assertEquals(BadDopoCreamException.LEVEL_NOT_FOUND, e.getMessage());
+        }
+    }
+    
+    /**
+     * Prueba que el registro rechaza índices de helado que no caben en su formato
+     */
+    @Test
+    public void testInputLogRejectsInvalidPlayer() {
+        InputLog log = new InputLog(1, 1L);
+        for (int player : new int[] {-1, InputLog.MAX_PLAYERS}) {
+            try {
+                log.recordAction(0, player, GameAction.MOVE_NORTH);
+                fail("Debió rechazar el índice " + player);
+            } catch (IllegalArgumentException e) {
+                assertEquals(0, log.size());
+            }
+        }
+        log.recordAction(3, InputLog.MAX_PLAYERS - 1, GameAction.BREAK_ICE);
+        assertEquals(InputLog.MAX_PLAYERS - 1, log.getPlayer(0));
+        assertEquals(GameAction.BREAK_ICE.ordinal(), log.getCode(0));
+    }
+    
+    /**
+     * Prueba que una partida grabada se reproduce igual a partir de sus bytes
+     */
+    @Test
+    public void testReplayReproducesSession() throws Exception {
+        game.startGame(1, 77L);
+        IceCream iceCream = game.getCurrentLevel().getBoard().getIceCreams().get(0);
+        Direction[] moves = {Direction.EAST, Direction.SOUTH, Direction.WEST, Direction.NORTH};
+        for (int round = 0; round < 40 && game.getState() == GameState.PLAYING; round++) {
+            game.moveIceCream(iceCream, moves[round % moves.length]);
+            if (round % 7 == 0) {
+                game.createIceBlocks(iceCream);
+            }
+            if (round == 10) {
+                game.pause();
+                game.resume();
+            }
+            game.step(BadDopoCream.TICKS_PER_UPDATE);
+        }
+        
+        InputLog log = InputLog.fromBytes(game.getInputLog().toBytes());
+        assertEquals(game.getInputLog().size(), log.size());
+        assertEquals(game.getTickCount(), log.getEndTick());
+        
+        BadDopoCream replayed = new ReplayPlayer(log).play(ReplayPlayer.MAX_SPEED);
+        assertEquals(game.getTickCount(), replayed.getTickCount());
+        assertEquals(describeBoard(game), describeBoard(replayed));
+    }
+    
+    /**
+     * Prueba que el nivel retrocede a un tick reciente y vuelve a su estado inicial
+     */
+    @Test
+    public void testLevelRewindAndReset() {
+        game.startGame(1, 42L);
+        Level level = game.getCurrentLevel();
+        IceCream iceCream = level.getBoard().getIceCreams().get(0);
+        String initial = describeLevel(level);
+        
+        for (int i = 0; i < 5; i++) {
+            iceCream.move(Direction.EAST, level.getBoard());
+            level.update();
+        }
+        game.createIceBlocks(iceCream);
+        level.update();
+        String atTick6 = describeLevel(level);
+        
+        for (int i = 0; i < 30; i++) {
+            iceCream.move(i % 2 == 0 ? Direction.SOUTH : Direction.WEST, level.getBoard());
+            level.update();
+        }
+        
+        assertTrue(level.rewindTo(6));
+        assertEquals(6, level.getTick());
+        assertEquals(atTick6, describeLevel(level));
+        assertFalse(level.rewindTo(7)); // Los ticks posteriores se descartaron
+        
+        level.reset();
+        assertEquals(0, level.getTick());
+        assertEquals(initial, describeLevel(level));
+    }
+    
+    /**
+     * Prueba que tras retroceder los trolls repiten las mismas decisiones
+     */
+    @Test
+    public void testLevelRewindReplaysTrolls() {
+        game.startGame(0, 11L);
+        Level level = game.getCurrentLevel();
+        Board board = level.getBoard();
+        IceCream iceCream = board.getIceCreams().get(0);
+        long[] hashes = new long[80];
+        for (int i = 0; i < hashes.length; i++) {
+            iceCream.move(i % 8 < 4 ? Direction.EAST : Direction.WEST, board);
+            level.update();
+            hashes[i] = board.getHash();
+        }
+        
+        assertTrue(level.rewindTo(20));
+        for (int i = 20; i < hashes.length; i++) {
+            iceCream.move(i % 8 < 4 ? Direction.EAST : Direction.WEST, board);
+            level.update();
+            assertEquals(hashes[i], board.getHash());
+        }
+    }
+    
+    /**
+     * Prueba que el estado exportado es inmutable y que importarlo reproduce las jugadas
+     */
+    @Test
+    public void testBoardStateExportAndImport() throws BadDopoCreamException {
+        game.startGame(1, 42L);
+        Level level = game.getCurrentLevel();
+        IceCream iceCream = level.getBoard().getIceCreams().get(0);
+        String initial = describeLevel(level);
+        BoardState start = level.exportState();
+        int id = start.getIceCreamId(0);
+        int startCell = start.getCell(id);
+        
+        BoardState state = start;
+        for (GameAction action : new GameAction[] {
+                GameAction.MOVE_NORTH, GameAction.MOVE_SOUTH, GameAction.CREATE_ICE, GameAction.MOVE_EAST,
+                GameAction.MOVE_WEST, GameAction.MOVE_SOUTH, GameAction.BREAK_ICE, GameAction.MOVE_NORTH,
+                GameAction.MOVE_SOUTH, GameAction.CREATE_ICE}) {
+            state = state.apply(id, action);
+            game.performAction(iceCream, action);
+        }
+        String played = describeLevel(level);
+        
+        assertEquals(startCell, start.getCell(id));
+        assertEquals(level.getBoard().getCellIndex(iceCream.getPosition()), state.getCell(id));
+        assertTrue(state.getEntityCount() > start.getEntityCount());
+        
+        level.importState(start);
+        assertEquals(initial, describeLevel(level));
+        level.importState(state);
+        assertEquals(played, describeLevel(level));
+        
+        Level other = new Level(2, 25, 15, 180);
+        try {
+            other.importState(state);
+            fail("Se esperaba BadDopoCreamException");
+        } catch (BadDopoCreamException e) {
+            assertEquals(BadDopoCreamException.INVALID_STATE, e.getMessage());
+        }
+    }
+    
+    /**
+     * Prueba que el jugador Monte Carlo se detiene por tiempo en el nivel 3 sin modificar el nivel.
+     * El margen sobre el tiempo dado es amplio para no fallar en equipos cargados.
+     */
+    @Test
+    public void testMonteCarloPlayerDecidesInTime() {
+        game.startGame(2, 7L);
+        Board board = game.getCurrentLevel().getBoard();
+        IceCream iceCream = board.getIceCreams().get(0);
+        long budget = 150;
+        MonteCarloPlayer player = new MonteCarloPlayer(3L, budget, 2);
+        
+        for (int turn = 0; turn < 5 && iceCream.isAlive(); turn++) {
+            long hash = board.getHash();
+            long start = System.nanoTime();
+            GameAction action = player.chooseAction(game, iceCream);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            
+            assertTrue("Tardó " + elapsed + " ms", elapsed < budget * 10);
+            assertNotEquals(GameAction.NONE, action);
+            assertEquals(hash, board.getHash());
+            game.performAction(iceCream, action);
+            game.step(BadDopoCream.TICKS_PER_UPDATE);
+        }
+    }
+    
+    /**
+     * Prueba que el jugador expectimax es determinista y se detiene por tiempo en el nivel 3.
+     * El margen sobre el tiempo dado es amplio para no fallar en equipos cargados.
+     */
+    @Test
+    public void testExpectimaxPlayerIsDeterministic() {
+        List<GameAction> first = new ArrayList<>();
+        List<GameAction> second = new ArrayList<>();
+        for (List<GameAction> actions : List.of(first, second)) {
+            game.startGame(2, 7L);
+            IceCream iceCream = game.getCurrentLevel().getBoard().getIceCreams().get(0);
+            ExpectimaxPlayer player = new ExpectimaxPlayer(10_000);
+            player.setDepthLimit(3);
+            for (int turn = 0; turn < 4 && iceCream.isAlive(); turn++) {
+                GameAction action = player.chooseAction(game, iceCream);
+                assertEquals(3, player.getCompletedDepth());
+                actions.add(action);
+                game.performAction(iceCream, action);
+                game.step(BadDopoCream.TICKS_PER_UPDATE);
+            }
+        }
+        assertEquals(first, second);
+        
+        game.startGame(2, 7L);
+        Board board = game.getCurrentLevel().getBoard();
+        IceCream iceCream = board.getIceCreams().get(0);
+        long hash = board.getHash();
+        long start = System.nanoTime();
+        GameAction action = new ExpectimaxPlayer().chooseAction(game, iceCream);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Tardó " + elapsed + " ms", elapsed < ExpectimaxPlayer.DEFAULT_TIME_BUDGET * 10);
+        assertNotEquals(GameAction.NONE, action);
+        assertEquals(hash, board.getHash());
+    }
+    
+    /**
+     * Prueba que una decisión preparada no depende del juego al calcularse en
+     * otro hilo, aunque el nivel haya avanzado mientras tanto
+     */
+    @Test
+    public void testPreparedDecisionIsDetached() throws Exception {
+        game.startGame(2, 7L);
+        IceCream iceCream = game.getCurrentLevel().getBoard().getIceCreams().get(0);
+        ExpectimaxPlayer player = new ExpectimaxPlayer(10_000);
+        player.setDepthLimit(3);
+        Supplier<GameAction> decision = player.prepareAction(game, iceCream);
+        game.step(3 * BadDopoCream.TICKS_PER_UPDATE);
+        long hash = game.getCurrentLevel().getBoard().getHash();
+        GameAction prepared = ForkJoinPool.commonPool().submit(decision::get).get();
+        assertEquals(hash, game.getCurrentLevel().getBoard().getHash());
+        
+        game.startGame(2, 7L);
+        ExpectimaxPlayer direct = new ExpectimaxPlayer(10_000);
+        direct.setDepthLimit(3);
+        assertEquals(direct.chooseAction(game, game.getCurrentLevel().getBoard().getIceCreams().get(0)), prepared);
+    }
+    
+    /**
+     * Prueba que el historial del nivel tiene memoria acotada
+     */
+    @Test
+    public void testLevelRewindIsBounded() {
+        game.startGame(0, 3L);
+        Level level = game.getCurrentLevel();
+        for (int i = 0; i < 1000; i++) {
+            level.update();
+        }
+        
+        long oldest = level.getOldestRewindTick();
+        assertTrue(oldest > 0);
+        assertFalse(level.rewindTo(oldest - 1));
+        assertTrue(level.rewindTo(oldest));
+        assertEquals(oldest, level.getTick());
+    }
+    
+    /**
+     * Prueba que retroceder funciona cuando los bloques de hielo viejos ya se
+     * retiraron del historial y sus identificadores se reutilizan
+     */
+    @Test
+    public void testLevelRewindAfterRetiringObjects() {
+        game.startGame(1, 9L);
+        Level level = game.getCurrentLevel();
+        Board board = level.getBoard();
+        IceCream iceCream = board.getIceCreams().get(0);
+        List<String> described = new ArrayList<>();
+        described.add(describeLevel(level));
+        
+        for (int i = 0; i < 3 * 320 && !level.isCompleted(); i++) {
+            Direction direction = Direction.values()[(i / 2) % 4];
+            if (i % 2 == 0) {
+                board.createIceBlocks(iceCream.getPosition(), direction);
+            } else {
+                board.breakIceBlocks(iceCream.getPosition(), direction);
+            }
+            level.update();
+            described.add(describeLevel(level));
+        }
+        
+        long newest = level.getTick();
+        assertTrue(level.rewindTo(newest - 7));
+        assertEquals(described.get((int) (newest - 7)), describeLevel(level));
+        long oldest = level.getOldestRewindTick();
+        assertTrue(level.rewindTo(oldest));
+        assertEquals(described.get((int) oldest), describeLevel(level));
+    }
+    
+    /**
+     * Prueba que la actualización del nivel elimina al helado que intercambia
+     * de celda con un enemigo, aunque nunca compartan celda al resolver
+     */
+    @Test
+    public void testLevelUpdateCatchesSwaps() {
+        Level level = new Level(1, 10, 10, 60);
+        Board board = level.getBoard();
+        IceCream iceCream = new VanillaIceCream(new Position(2, 2));
+        Troll troll = new Troll(new Position(3, 2));
+        troll.setFacingDirection(Direction.WEST);
+        board.addObject(iceCream);
+        board.addObject(troll);
+        
+        iceCream.move(Direction.EAST, board);
+        level.update();
+        
+        assertEquals(new Position(3, 2), iceCream.getPosition());
+        assertEquals(new Position(2, 2), troll.getPosition());
+        assertFalse(iceCream.isAlive());
+    }
+    
+    /**
+     * Prueba que en un tablero grande casi estático los ticks no recorren los
+     * objetos quietos; solo los fotogramas completos copian sus estados
+     */
+    @Test
+    public void testLevelTickIgnoresStaticObjects() {
+        Level level = new Level(1, 256, 256, 60);
+        Board board = level.getBoard();
+        int[] reads = new int[1];
+        for (int y = 0; y < 256; y += 2) {
+            for (int x = 0; x < 256; x += 2) {
+                board.addObject(new StaticObject(new Position(x, y), reads));
+            }
+        }
+        board.addObject(new VanillaIceCream(new Position(1, 1)));
+        level.update(); // Registra los objetos agregados
+        
+        reads[0] = 0;
+        for (int i = 0; i < 100; i++) {
+            level.update();
+        }
+        assertEquals(0, reads[0]);
+    }
+    
+    /**
+     * Prueba que retroceder e importar no le inventan dirección a un objeto sin ella
+     */
+    @Test
+    public void testRestoreKeepsMissingFacing() throws BadDopoCreamException {
+        game.startGame(1, 42L);
+        Level level = game.getCurrentLevel();
+        IceCream iceCream = level.getBoard().getIceCreams().get(0);
+        iceCream.setFacingDirection(null);
+        level.update();
+        level.update();
+        
+        assertTrue(level.rewindTo(1));
+        assertNull(iceCream.getFacingDirection());
+        
+        BoardState state = level.exportState();
+        assertNull(state.getFacing(state.getIceCreamId(0)));
+        level.importState(state);
+        assertNull(iceCream.getFacingDirection());
+    }
+    
+    /**
+     * Prueba que las estadísticas incrementales coinciden con recorrer el tablero
+     */
+    @Test
+    public void testStatisticsMatchBoard() {
+        game.startGame(2, 11L);
+        Level level = game.getCurrentLevel();
+        MachinePlayer player = new RandomPlayer(5L);
+        
+        while (game.getState() == GameState.PLAYING) {
+            for (IceCream iceCream : level.getBoard().getIceCreams()) {
+                game.performAction(iceCream, player.chooseAction(game, iceCream));
+            }
+            game.step(BadDopoCream.TICKS_PER_UPDATE);
+            
+            int score = 0;
+            int alive = 0;
+            for (IceCream iceCream : level.getBoard().getIceCreams()) {
+                score += iceCream.getScore();
+                alive += iceCream.isAlive() ? 1 : 0;
+            }
+            assertEquals(score, game.getTotalScore());
+            assertEquals(alive, level.getStatistics().getLiveIceCreams());
+            assertTrue(level.getCollectedFruits() <= level.getTotalFruits());
+        }
+    }
+    
+    /**
+     * Describe en orden estable los objetos, puntajes y el tiempo del nivel
+     */
+    private String describeLevel(Level level) {
+        List<String> parts = new ArrayList<>();
+        for (GameObject obj : level.getBoard().getAllObjects()) {
+            String state = obj.getType() + obj.getPosition();
+            if (obj instanceof IceCream iceCream) {
+                state += iceCream.isAlive() + ":" + iceCream.getScore();
+            }
+            parts.add(state);
+        }
+        Collections.sort(parts);
+        return parts + "|" + level.getTimeRemaining() + "|" + level.getCollectedFruits();
+    }
+    
     /**
      * Prueba que las oleadas funcionan correctamente
      */
@@ -502,5 +976,37 @@ public class BadDopoCreamTest {
         assertTrue(template.getDescription().contains("Bananos"));
         assertTrue(template.getDescription().contains("Uvas"));
     }
+    
+    /**
+     * Objeto quieto que cuenta cuántas veces se consulta su posición
+     */
+    private static class StaticObject extends GameObject {
+        private final int[] reads;
+        
+        StaticObject(Position position, int[] reads) {
+            super(position);
+            this.reads = reads;
+        }
+        
+        @Override
+        public Position getPosition() {
+            reads[0]++;
+            return super.getPosition();
+        }
+        
+        @Override
+        public void update(Board board) {
+        }
+        
+        @Override
+        public boolean isSolid() {
+            return true;
+        }
+        
+        @Override
+        public String getType() {
+            return "static";
+        }
+    }
 
 }
\ No newline at end of file
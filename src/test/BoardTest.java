@@ -0,0 +1,525 @@
+package test;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import domain.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pruebas unitarias para la clase Board.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class BoardTest {
+
+    private Board board;
+
+    /**
+     * Crea los tableros de las pruebas; las subclases prueban otros almacenamientos
+     */
+    protected Board newBoard(int width, int height) {
+        return new Board(width, height);
+    }
+
+    /**
+     * Configuración inicial antes de cada prueba
+     */
+    @Before
+    public void setUp() {
+        board = newBoard(25, 15);
+    }
+
+    /**
+     * Prueba que las capas de ocupación reflejan los objetos agregados
+     */
+    @Test
+    public void testLayersAfterAdd() {
+        board.addObject(new IceBlock(new Position(3, 3), true));
+        board.addObject(new HotTile(new Position(4, 4)));
+        board.addObject(new Troll(new Position(5, 5)));
+
+        assertTrue(board.isSolidAt(new Position(3, 3)));
+        assertTrue(board.hasIceBlockAt(new Position(3, 3)));
+        assertTrue(board.hasPlayerIceBlockAt(new Position(3, 3)));
+        assertTrue(board.hasHotTileAt(new Position(4, 4)));
+        assertFalse(board.isSolidAt(new Position(4, 4)));
+        assertTrue(board.hasEnemyAt(new Position(5, 5)));
+        assertFalse(board.hasEnemyAt(new Position(6, 5)));
+    }
+
+    /**
+     * Prueba que una celda conserva su capa si aún queda otro objeto del mismo tipo
+     */
+    @Test
+    public void testLayersAfterRemoveWithSharedCell() {
+        Troll first = new Troll(new Position(5, 5));
+        Troll second = new Troll(new Position(5, 5));
+        board.addObject(first);
+        board.addObject(second);
+
+        board.removeObject(first);
+        assertTrue(board.hasEnemyAt(new Position(5, 5)));
+
+        board.moveObject(second, new Position(6, 5));
+        assertFalse(board.hasEnemyAt(new Position(5, 5)));
+        assertTrue(board.hasEnemyAt(new Position(6, 5)));
+    }
+
+    /**
+     * Prueba que se pueden remover objetos mientras se recorre una celda
+     */
+    @Test
+    public void testForEachObjectAtAllowsRemoval() {
+        Position pos = new Position(2, 2);
+        board.addObject(new Banana(pos));
+        board.addObject(new Grape(pos));
+        board.addObject(new VanillaIceCream(pos));
+
+        int[] visited = {0};
+        board.forEachObjectAt(pos, obj -> {
+            visited[0]++;
+            if (obj instanceof Fruit) {
+                board.removeObject(obj);
+            }
+        });
+
+        assertEquals(3, visited[0]);
+        assertEquals(1, board.getObjectsAt(pos).size());
+        assertFalse(board.hasFruitAt(pos));
+    }
+
+    /**
+     * Prueba las celdas empaquetadas y la tabla de vecinos
+     */
+    @Test
+    public void testPackedCellsAndNeighbors() {
+        int cell = board.getCellIndex(new Position(0, 0));
+        assertSame(board.getPosition(cell), board.getPosition(0, 0));
+        assertEquals(-1, board.getNeighbor(cell, Direction.NORTH));
+        assertEquals(-1, board.getNeighbor(cell, Direction.WEST));
+        assertEquals(new Position(1, 0), board.getPosition(board.getNeighbor(cell, Direction.EAST)));
+        assertEquals(new Position(0, 1), board.getPosition(board.getNeighbor(cell, Direction.SOUTH)));
+        assertEquals(-1, board.getCellIndex(new Position(25, 0)));
+    }
+
+    /**
+     * Prueba que el campo de distancias rodea un muro de hielo
+     */
+    @Test
+    public void testDistanceFieldGoesAroundIce() {
+        board.addObject(new VanillaIceCream(new Position(5, 5)));
+        for (int y = 3; y <= 7; y++) {
+            board.addObject(new IceBlock(new Position(4, y), false));
+        }
+
+        DistanceField field = board.getDistanceField(false);
+        int start = board.getCellIndex(new Position(3, 5));
+
+        assertEquals(8, field.getDistance(start));
+        assertNotEquals(Direction.EAST, field.getNextDirection(start));
+        assertEquals(2, board.getDistanceField(true).getDistance(start));
+    }
+
+    /**
+     * Prueba que el campo de distancias se repara al crear y romper hielo
+     */
+    @Test
+    public void testDistanceFieldRepairsAfterIceChanges() {
+        IceCream iceCream = new VanillaIceCream(new Position(5, 5));
+        board.addObject(iceCream);
+        DistanceField field = board.getDistanceField(false);
+        int target = board.getCellIndex(new Position(5, 0));
+        assertEquals(5, field.getDistance(target));
+
+        board.createIceBlocks(iceCream.getPosition(), Direction.NORTH);
+        assertEquals(DistanceField.UNREACHABLE, field.getDistance(target));
+        assertEquals(6, field.getDistance(board.getCellIndex(new Position(4, 0))));
+
+        board.breakIceBlocks(iceCream.getPosition(), Direction.NORTH);
+        assertEquals(5, field.getDistance(target));
+    }
+
+    /**
+     * Prueba que el planificador A* atraviesa el hielo y conserva el camino entre ticks
+     */
+    @Test
+    public void testPathPlannerCrossesIceAndKeepsPath() {
+        for (int y = 1; y < 15; y++) {
+            board.addObject(new IceBlock(new Position(10, y), false));
+        }
+        PathPlanner planner = new PathPlanner();
+        int from = board.getCellIndex(new Position(8, 7));
+        int target = board.getCellIndex(new Position(12, 7));
+
+        assertEquals(Direction.EAST, planner.nextDirection(board, from, target));
+        assertTrue(planner.hasPath());
+
+        int next = board.getNeighbor(from, Direction.EAST);
+        assertEquals(Direction.EAST, planner.nextDirection(board, next, target));
+
+        board.removeObject(board.getObjectsAt(new Position(10, 7)).get(0));
+        assertEquals(Direction.EAST, planner.nextDirection(board, next, target));
+    }
+
+    /**
+     * Prueba que los oyentes reciben los cambios del tablero en orden
+     */
+    @Test
+    public void testEventStream() {
+        StringBuilder events = new StringBuilder();
+        board.addListener(new GameEventListener() {
+            @Override
+            public void objectAdded(GameObject object) {
+                events.append("+").append(object.getType()).append(' ');
+            }
+            
+            @Override
+            public void objectRemoved(GameObject object) {
+                events.append("-").append(object.getType()).append(' ');
+            }
+            
+            @Override
+            public void objectMoved(GameObject object, Position from, Position to) {
+                events.append(object.getType()).append(from).append(to).append(' ');
+            }
+            
+            @Override
+            public void iceCreated(IceBlock block) {
+                events.append("ice").append(block.getPosition()).append(' ');
+            }
+            
+            @Override
+            public void iceBroken(IceBlock block) {
+                events.append("broken").append(block.getPosition()).append(' ');
+            }
+            
+            @Override
+            public void iceCreamEliminated(IceCream iceCream) {
+                events.append("dead ");
+            }
+        });
+        
+        IceCream iceCream = new VanillaIceCream(new Position(0, 1));
+        board.addObject(iceCream);
+        iceCream.move(Direction.NORTH, board);
+        board.createIceBlocks(iceCream.getPosition(), Direction.EAST);
+        assertTrue(events.toString().startsWith("+" + iceCream.getType() + " "
+            + iceCream.getType() + new Position(0, 1) + new Position(0, 0) + " +ICE_BLOCK ice" + new Position(1, 0)));
+        events.setLength(0);
+        
+        board.breakIceBlocks(new Position(22, 0), Direction.EAST);
+        iceCream.eliminate();
+        iceCream.eliminate();
+        
+        assertEquals("-ICE_BLOCK broken" + new Position(23, 0) + " -ICE_BLOCK broken" + new Position(24, 0)
+            + " dead ", events.toString());
+    }
+    
+    /**
+     * Prueba que los registros por tipo siguen los objetos del tablero
+     */
+    @Test
+    public void testTypedRegistries() {
+        Troll troll = new Troll(new Position(1, 1));
+        Banana banana = new Banana(new Position(2, 2));
+        HotTile hotTile = new HotTile(new Position(3, 3));
+        board.addObject(troll);
+        board.addObject(banana);
+        board.addObject(hotTile);
+        board.createIceBlocks(new Position(5, 5), Direction.EAST);
+        
+        assertEquals(1, board.getEnemies().size());
+        assertEquals(1, board.getFruits().size());
+        assertEquals(2, board.getDangerousObjects().size());
+        assertEquals(19, board.getIceBlocks().size());
+        
+        board.moveObject(troll, new Position(1, 2));
+        board.removeObject(banana);
+        board.breakIceBlocks(new Position(5, 5), Direction.EAST);
+        
+        assertSame(troll, board.getEnemies().get(0));
+        assertTrue(board.getFruits().isEmpty());
+        assertTrue(board.getIceBlocks().isEmpty());
+        try {
+            board.getEnemies().clear();
+            fail("La vista debe ser de solo lectura");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, board.getEnemies().size());
+        }
+    }
+    
+    /**
+     * Prueba que el planificador solo actualiza los objetos activos
+     */
+    @Test
+    public void testSchedulerTicksOnlyActive() {
+        TickScheduler scheduler = new TickScheduler(board);
+        Troll troll = new Troll(new Position(20, 10));
+        board.addObject(troll);
+        board.addObject(new HotTile(new Position(4, 4)));
+        board.addObject(new Banana(new Position(1, 1)));
+        board.addObject(new VanillaIceCream(new Position(4, 3)));
+        assertEquals(1, scheduler.getActiveCount());
+        
+        scheduler.tick();
+        assertNotEquals(new Position(20, 10), troll.getPosition());
+        
+        board.removeObject(troll);
+        assertEquals(0, scheduler.getActiveCount());
+    }
+    
+    /**
+     * Prueba que la actualización en dos fases es reproducible sin importar los hilos
+     */
+    @Test
+    public void testTwoPhaseEnemiesAreDeterministic() throws Exception {
+        String parallel = runTwoPhaseEnemies();
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertEquals(parallel, single.submit(this::runTwoPhaseEnemies).get());
+        } finally {
+            single.shutdown();
+        }
+    }
+    
+    /**
+     * Simula cientos de enemigos en dos fases y describe sus posiciones finales
+     */
+    private String runTwoPhaseEnemies() {
+        Board big = newBoard(60, 60);
+        TickScheduler scheduler = new TickScheduler(big);
+        scheduler.setTwoPhase(true);
+        SplittableRandom random = new SplittableRandom(9L);
+        big.addObject(new VanillaIceCream(new Position(30, 30)));
+        for (int i = 0; i < 400; i++) {
+            Position position = new Position(random.nextInt(60), random.nextInt(60));
+            big.addObject(i % 2 == 0 ? new Pot(position) : new Troll(position, random.split()));
+        }
+        
+        for (int tick = 0; tick < 30; tick++) {
+            big.advanceTick();
+            scheduler.tick();
+        }
+        
+        StringBuilder description = new StringBuilder();
+        for (Enemy enemy : big.getEnemies()) {
+            description.append(enemy.getPosition()).append(enemy.getFacingDirection());
+        }
+        return description.toString();
+    }
+    
+    /**
+     * Prueba que la fase de colisiones cruza las capas y detecta intercambios
+     */
+    @Test
+    public void testCollisionPhase() {
+        CollisionPhase collisions = new CollisionPhase(board);
+        board.addObject(new HotTile(new Position(4, 4)));
+        IceCream burned = new VanillaIceCream(new Position(4, 3));
+        IceCream swapped = new VanillaIceCream(new Position(10, 10));
+        IceCream safe = new VanillaIceCream(new Position(0, 0));
+        Troll troll = new Troll(new Position(11, 10));
+        board.addObject(burned);
+        board.addObject(swapped);
+        board.addObject(safe);
+        board.addObject(troll);
+        
+        collisions.resolve();
+        assertTrue(burned.isAlive());
+        
+        burned.move(Direction.SOUTH, board);
+        board.moveObject(swapped, new Position(11, 10));
+        board.moveObject(troll, new Position(10, 10));
+        collisions.resolve();
+        
+        assertFalse(burned.isAlive());
+        assertFalse(swapped.isAlive());
+        assertTrue(safe.isAlive());
+    }
+    
+    /**
+     * Prueba que las consultas fuera del tablero no fallan
+     */
+    @Test
+    public void testLayersOutsideBoard() {
+        assertFalse(board.isSolidAt(new Position(-1, 0)));
+        assertFalse(board.hasIceBlockAt(new Position(25, 0)));
+        assertFalse(board.hasHotTileAt(new Position(0, 15)));
+    }
+    
+    /**
+     * Prueba que un tablero muy grande se crea rápido y guarda objetos en sus extremos
+     */
+    @Test
+    public void testLargeSparseBoard() {
+        long start = System.nanoTime();
+        Board large = newBoard(4096, 4096);
+        IceCream iceCream = new VanillaIceCream(new Position(4095, 4095));
+        large.addObject(iceCream);
+        large.addObject(new IceBlock(new Position(0, 0), false));
+        large.addObject(new Troll(new Position(2000, 3000)));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        
+        assertEquals(3, large.getAllObjects().size());
+        assertTrue(large.hasIceBlockAt(new Position(0, 0)));
+        assertTrue(large.hasEnemyAt(new Position(2000, 3000)));
+        assertFalse(large.hasEnemyAt(new Position(2000, 3001)));
+        assertSame(iceCream, large.getObjectsAt(new Position(4095, 4095)).get(0));
+        
+        int corner = large.getCellIndex(new Position(4095, 4095));
+        assertEquals(-1, large.getNeighbor(corner, Direction.EAST));
+        assertEquals(new Position(4094, 4095), large.getPosition(large.getNeighbor(corner, Direction.WEST)));
+        
+        large.moveObject(iceCream, new Position(4094, 4095));
+        assertTrue(large.getObjectsAt(new Position(4095, 4095)).isEmpty());
+    }
+    
+    /**
+     * Prueba que una celda con varios objetos conserva su orden al quitar el primero
+     */
+    @Test
+    public void testSharedCellKeepsOrder() {
+        Position cell = new Position(3, 3);
+        HotTile tile = new HotTile(cell);
+        Grape grape = new Grape(cell);
+        Troll troll = new Troll(cell);
+        IceCream iceCream = new VanillaIceCream(cell);
+        board.addObject(tile);
+        board.addObject(grape);
+        board.addObject(troll);
+        board.addObject(iceCream);
+        
+        board.removeObject(tile);
+        board.removeObject(troll);
+        assertEquals(Arrays.asList(grape, iceCream), board.getObjectsAt(cell));
+        assertFalse(board.hasHotTileAt(cell));
+        assertFalse(board.hasEnemyAt(cell));
+        
+        board.addObject(troll);
+        assertEquals(Arrays.asList(grape, iceCream, troll), board.getObjectsAt(cell));
+    }
+    
+    /**
+     * Prueba que unmake deja celdas, registros y capas exactamente como estaban
+     */
+    @Test
+    public void testUnmakeRestoresBoard() {
+        Position cell = new Position(3, 3);
+        IceCream iceCream = new VanillaIceCream(new Position(1, 1));
+        Troll first = new Troll(cell);
+        Troll second = new Troll(new Position(8, 8));
+        Grape grape = new Grape(cell);
+        HotTile tile = new HotTile(new Position(1, 4));
+        board.addObject(first);
+        board.addObject(grape);
+        board.addObject(second);
+        iceCream.setFacingDirection(Direction.EAST);
+        board.addObject(iceCream);
+        board.addObject(tile);
+        board.addObject(new IceBlock(new Position(1, 6), false));
+        
+        long hash = board.getHash();
+        List<GameObject> before = new ArrayList<>(board.getAllObjects());
+        List<Enemy> enemiesBefore = new ArrayList<>(board.getEnemies());
+        List<GameObject> dangerousBefore = new ArrayList<>(board.getDangerousObjects());
+        board.setUndoRecording(true);
+        
+        board.removeObject(first);
+        board.moveObject(second, new Position(-1, 8));
+        board.beginMake();
+        assertTrue(iceCream.move(Direction.SOUTH, board));
+        assertEquals(Direction.SOUTH, iceCream.getFacingDirection());
+        board.createIceBlocks(iceCream.getPosition(), Direction.SOUTH);
+        board.endMake();
+        board.breakIceBlocks(iceCream.getPosition(), Direction.SOUTH);
+        assertEquals(4, board.getUndoDepth());
+        assertTrue(board.getEnemies().isEmpty());
+        
+        while (board.unmake()) {
+        }
+        assertEquals(0, board.getUndoDepth());
+        assertEquals(before, board.getAllObjects());
+        assertEquals(enemiesBefore, board.getEnemies());
+        assertEquals(dangerousBefore, board.getDangerousObjects());
+        assertEquals(Arrays.asList(first, grape), board.getObjectsAt(cell));
+        assertEquals(1, board.getIceBlocks().size());
+        assertFalse(board.hasIceBlockAt(new Position(1, 3)));
+        assertTrue(board.hasEnemyAt(new Position(8, 8)));
+        assertEquals(new Position(1, 1), iceCream.getPosition());
+        assertEquals(Direction.EAST, iceCream.getFacingDirection());
+        assertEquals(hash, board.getHash());
+    }
+    
+    /**
+     * Prueba que un giro sin avanzar es una jugada que unmake revierte por separado
+     */
+    @Test
+    public void testUnmakeRestoresBlockedTurn() {
+        IceCream iceCream = new VanillaIceCream(new Position(1, 1));
+        iceCream.setFacingDirection(Direction.EAST);
+        board.addObject(iceCream);
+        board.addObject(new IceBlock(new Position(0, 2), false));
+        long start = board.getHash();
+        board.setUndoRecording(true);
+        
+        assertTrue(iceCream.move(Direction.SOUTH, board));
+        long moved = board.getHash();
+        assertFalse(iceCream.move(Direction.WEST, board));
+        assertEquals(2, board.getUndoDepth());
+        assertNotEquals(moved, board.getHash());
+        
+        assertTrue(board.unmake());
+        assertEquals(new Position(1, 2), iceCream.getPosition());
+        assertEquals(Direction.SOUTH, iceCream.getFacingDirection());
+        assertEquals(moved, board.getHash());
+        assertTrue(board.unmake());
+        assertEquals(new Position(1, 1), iceCream.getPosition());
+        assertEquals(Direction.EAST, iceCream.getFacingDirection());
+        assertEquals(start, board.getHash());
+    }
+    
+    /**
+     * Prueba que el hash Zobrist depende del contenido y no del orden de llegada
+     */
+    @Test
+    public void testZobristHash() {
+        assertEquals(0L, board.getHash());
+        Troll troll = new Troll(new Position(4, 4));
+        board.addObject(troll);
+        board.addObject(new IceBlock(new Position(6, 6), true));
+        long hash = board.getHash();
+        
+        Board other = newBoard(25, 15);
+        other.addObject(new IceBlock(new Position(6, 6), true));
+        other.addObject(new Troll(new Position(4, 4)));
+        assertEquals(hash, other.getHash());
+        other.removeObject(other.getIceBlocks().get(0));
+        other.addObject(new IceBlock(new Position(6, 6), false));
+        assertNotEquals(hash, other.getHash());
+        
+        board.moveObject(troll, new Position(5, 4));
+        assertNotEquals(hash, board.getHash());
+        board.moveObject(troll, new Position(4, 4));
+        assertEquals(hash, board.getHash());
+        
+        board.turnObject(troll, Direction.EAST);
+        assertNotEquals(hash, board.getHash());
+        board.turnObject(troll, Direction.SOUTH);
+        assertEquals(hash, board.getHash());
+        
+        board.setUndoRecording(true);
+        board.createIceBlocks(new Position(4, 4), Direction.NORTH);
+        board.unmake();
+        assertEquals(hash, board.getHash());
+        board.removeObject(troll);
+        board.removeObject(board.getIceBlocks().get(0));
+        assertEquals(0L, board.getHash());
+    }
+}
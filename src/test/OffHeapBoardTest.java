@@ -0,0 +1,19 @@
+package test;
+
+import domain.*;
+
+/**
+ * Pruebas de Board con las celdas fuera del heap.
+ * Repite todas las pruebas de BoardTest sobre el otro almacenamiento.
+ *
+ * @author Juan Daniel Bogotá Fuentes
+ * @author Nicolás Felipe Bernal Gallo
+ * @version 1.0
+ */
+public class OffHeapBoardTest extends BoardTest {
+
+    @Override
+    protected Board newBoard(int width, int height) {
+        return new Board(width, height, BoardStorage.OFF_HEAP);
+    }
+}